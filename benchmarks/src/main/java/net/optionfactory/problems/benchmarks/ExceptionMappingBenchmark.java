@@ -0,0 +1,103 @@
+package net.optionfactory.problems.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import net.optionfactory.problems.Failure;
+import net.optionfactory.problems.Problem;
+import net.optionfactory.problems.web.ExceptionMapper;
+import net.optionfactory.problems.web.ExceptionMappers;
+import net.optionfactory.problems.web.RestExceptionResolver.HttpStatusAndFailures;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.impl.NoOpLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.validation.BindException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception to problems dispatch through {@link ExceptionMappers} versus the
+ * former instanceof chain with a per-call {@link ResponseStatus} lookup.
+ * Both variants guard their debug messages as the resolver does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionMappingBenchmark {
+
+    private static final Log LOGGER = new NoOpLog();
+
+    @Param({"failure", "accessDenied", "unmapped"})
+    public String kind;
+
+    private final ExceptionMappers mappers = ExceptionMappers.withDefaults();
+    private Exception exception;
+
+    @Setup
+    public void setup() {
+        switch (kind) {
+            case "failure":
+                exception = Failure.stackless(Problem.of("FIELD_ERROR", "email", "invalid", null));
+                break;
+            case "accessDenied":
+                exception = new AccessDeniedException("denied");
+                break;
+            default:
+                exception = new IllegalStateException("unexpected");
+        }
+    }
+
+    @Benchmark
+    public HttpStatusAndFailures registry() {
+        final ExceptionMapper<Throwable> mapper = mappers.lookup(exception.getClass());
+        return mapper != null ? mapper.map(exception, "/", LOGGER) : null;
+    }
+
+    @Benchmark
+    public HttpStatusAndFailures instanceofChain() {
+        final Exception ex = exception;
+        if (ex instanceof HttpMessageNotReadableException
+                || ex instanceof BindException
+                || ex instanceof MethodArgumentTypeMismatchException
+                || ex instanceof MissingServletRequestPartException
+                || ex instanceof ResponseStatusException) {
+            throw new IllegalStateException("not benchmarked");
+        }
+        final ResponseStatus responseStatus = AnnotationUtils.findAnnotation(ex.getClass(), ResponseStatus.class);
+        if (responseStatus != null) {
+            throw new IllegalStateException("not benchmarked");
+        }
+        if (ex instanceof Failure) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("Failure at %s", "/"), ex);
+            }
+            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, ((Failure) ex).problems);
+        }
+        if (ex instanceof AccessDeniedException) {
+            final Problem problem = Problem.of("FORBIDDEN", null, ex.getMessage(), null);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("Access denied at %s: %s", "/", problem));
+            }
+            return new HttpStatusAndFailures(HttpStatus.FORBIDDEN, Collections.singletonList(problem));
+        }
+        return null;
+    }
+}
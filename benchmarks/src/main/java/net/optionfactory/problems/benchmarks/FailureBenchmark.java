@@ -0,0 +1,78 @@
+package net.optionfactory.problems.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.optionfactory.problems.Failure;
+import net.optionfactory.problems.Problem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throw/catch cost of a {@link Failure} with a full stack trace versus a
+ * stackless one. {@code enforce*} variants go through the static helpers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FailureBenchmark {
+
+    private final List<Problem> problems = Collections.singletonList(Problem.of("FIELD_ERROR", "email", "invalid email", Problem.NO_DETAILS));
+
+    @Benchmark
+    public Object throwAndCatch() {
+        try {
+            throw new Failure(problems);
+        } catch (Failure ex) {
+            return ex.problems;
+        }
+    }
+
+    @Benchmark
+    public Object throwAndCatchStackless() {
+        try {
+            throw Failure.stackless(problems);
+        } catch (Failure ex) {
+            return ex.problems;
+        }
+    }
+
+    @Benchmark
+    public Object enforce() {
+        try {
+            Failure.enforce(problems);
+            return null;
+        } catch (Failure ex) {
+            return ex.problems;
+        }
+    }
+
+    @Benchmark
+    public Object enforceStackless() {
+        try {
+            Failure.enforceStackless(problems);
+            return null;
+        } catch (Failure ex) {
+            return ex.problems;
+        }
+    }
+
+    @Benchmark
+    public String throwAndCatchWithMessage() {
+        try {
+            throw new Failure(problems);
+        } catch (Failure ex) {
+            return ex.getMessage();
+        }
+    }
+}
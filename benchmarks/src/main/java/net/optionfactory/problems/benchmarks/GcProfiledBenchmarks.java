@@ -0,0 +1,30 @@
+package net.optionfactory.problems.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks matching the given patterns (all of them when none is
+ * given) with the GC profiler, reporting allocation rates
+ * ({@code gc.alloc.rate.norm}) next to the timings.
+ * <code>
+ * java -cp target/benchmarks.jar net.optionfactory.problems.benchmarks.GcProfiledBenchmarks RestExceptionResolver
+ * </code>
+ */
+public class GcProfiledBenchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        final OptionsBuilder builder = new OptionsBuilder();
+        for (String pattern : args) {
+            builder.include(pattern);
+        }
+        if (args.length == 0) {
+            builder.include(GcProfiledBenchmarks.class.getPackage().getName());
+        }
+        final Options options = builder.addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,50 @@
+package net.optionfactory.problems.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import net.optionfactory.problems.Problem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Construction (type interning included) and formatting of a {@link Problem}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProblemBenchmark {
+
+    private String type = "FIELD_ERROR";
+    private String context = "email";
+    private String reason = "invalid email";
+    private final Problem problem = Problem.of("FIELD_ERROR", "email", "invalid email", "details");
+
+    @Benchmark
+    public Problem of() {
+        return Problem.of(type, context, reason, Problem.NO_DETAILS);
+    }
+
+    @Benchmark
+    public Problem ofTypeAndReason() {
+        return Problem.of(type, reason);
+    }
+
+    @Benchmark
+    public String toStringProblem() {
+        return problem.toString();
+    }
+
+    @Benchmark
+    public int hashCodeProblem() {
+        return Problem.of(type, context, reason, Problem.NO_DETAILS).hashCode();
+    }
+}
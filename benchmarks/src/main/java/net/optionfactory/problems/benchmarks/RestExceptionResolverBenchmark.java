@@ -0,0 +1,87 @@
+package net.optionfactory.problems.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import net.optionfactory.problems.Failure;
+import net.optionfactory.problems.Problem;
+import net.optionfactory.problems.web.JsonViewFactory;
+import net.optionfactory.problems.web.RestExceptionResolver;
+import net.optionfactory.problems.web.XmlViewFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
+
+/**
+ * {@link RestExceptionResolver} end to end over mock servlet objects:
+ * negotiation, mapping and serialization of the problems, either rendering
+ * the returned view or writing directly to the response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestExceptionResolverBenchmark {
+
+    @Param({"application/json", "application/xml"})
+    public String accept;
+
+    @Param({"false", "true"})
+    public boolean writeDirectly;
+
+    private RestExceptionResolver resolver;
+    private HandlerMethod handler;
+    private final Exception exception = Failure.stackless(Problem.of("FIELD_ERROR", "email", "invalid email", null));
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        final LinkedHashMap<MediaType, Supplier<View>> viewFactories = new LinkedHashMap<>();
+        viewFactories.put(MediaType.APPLICATION_JSON, new JsonViewFactory(new ObjectMapper()));
+        viewFactories.put(MediaType.APPLICATION_XML, new XmlViewFactory(new XmlMapper()));
+        resolver = new RestExceptionResolver(new ContentNegotiationManager(), viewFactories, 0);
+        resolver.setWriteDirectly(writeDirectly);
+        // measures negotiation, mapping and serialization, not console logging
+        resolver.setWarnLogCategory(null);
+        handler = new HandlerMethod(new Controller(), Controller.class.getMethod("handle"));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse resolveAndRender() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders");
+        request.addHeader("Accept", accept);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final ModelAndView mav = resolver.resolveException(request, response, handler, exception);
+        if (mav.getView() != null) {
+            mav.getView().render(mav.getModel(), request, response);
+        }
+        return response;
+    }
+
+    public static class Controller {
+
+        @ResponseBody
+        public String handle() {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package net.optionfactory.problems.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.optionfactory.problems.Problem;
+import net.optionfactory.problems.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Costs of the {@link Result} combinators. Run with {@code -prof gc} to
+ * report allocation per operation ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultBenchmark {
+
+    private final Problem problem = Problem.of("FIELD_ERROR", "email", "invalid email", Problem.NO_DETAILS);
+    private final Result<Integer> valued = Result.value(42);
+    private final Result<Integer> errored = Result.error(problem);
+
+    @Benchmark
+    public Result<Integer> value() {
+        return Result.value(42);
+    }
+
+    @Benchmark
+    public Result<Integer> error() {
+        return Result.error(problem);
+    }
+
+    @Benchmark
+    public Result<String> mapValue() {
+        return valued.map(v -> "v");
+    }
+
+    @Benchmark
+    public Result<String> mapError() {
+        return errored.map(v -> "v");
+    }
+
+    @Benchmark
+    public Result<String> flatMapError() {
+        return errored.flatMap(v -> Result.value("v"));
+    }
+
+    @Benchmark
+    public Integer orElse() {
+        return errored.orElse(0);
+    }
+
+    @Benchmark
+    public Integer fold() {
+        return errored.fold(List::size, v -> v);
+    }
+
+    @Benchmark
+    public List<Problem> problems() {
+        return Result.problems(valued, errored, valued);
+    }
+}
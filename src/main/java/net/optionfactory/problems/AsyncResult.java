@@ -0,0 +1,162 @@
+package net.optionfactory.problems;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An asynchronous {@link Result}: completes with _either_ a value or a list
+ * of problems. Handlers can return {@link #toFuture()} to Spring MVC: errors
+ * complete the future with a stackless {@link Failure}, rendered by
+ * {@link net.optionfactory.problems.web.RestExceptionResolver} as a thrown
+ * one would be.
+ *
+ * @param <V> the value type
+ */
+public class AsyncResult<V> {
+
+    private final CompletableFuture<Result<V>> stage;
+
+    public AsyncResult(CompletableFuture<Result<V>> stage) {
+        this.stage = stage;
+    }
+
+    public static <V> AsyncResult<V> of(CompletionStage<Result<V>> stage) {
+        return new AsyncResult<>(stage.toCompletableFuture());
+    }
+
+    public static <V> AsyncResult<V> of(Result<V> result) {
+        return new AsyncResult<>(CompletableFuture.completedFuture(result));
+    }
+
+    public static <V> AsyncResult<V> value(V value) {
+        return of(Result.value(value));
+    }
+
+    public static <V> AsyncResult<V> error(Problem problem) {
+        return of(Result.error(problem));
+    }
+
+    public static <V> AsyncResult<V> errors(List<Problem> problems) {
+        return of(Result.errors(problems));
+    }
+
+    public static <V> AsyncResult<V> supplyAsync(Supplier<Result<V>> supplier, Executor executor) {
+        return new AsyncResult<>(CompletableFuture.supplyAsync(supplier, executor));
+    }
+
+    /**
+     * Adapts a value future: a completion with a {@link Failure} yields its
+     * problems, other exceptional completions are kept as they are.
+     *
+     * @param <V> the value type
+     * @param stage the value stage
+     * @return the async result
+     */
+    public static <V> AsyncResult<V> fromFuture(CompletionStage<V> stage) {
+        final CompletableFuture<Result<V>> adapted = new CompletableFuture<>();
+        stage.whenComplete((value, ex) -> {
+            final Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause == null) {
+                adapted.complete(Result.value(value));
+            } else if (cause instanceof Failure) {
+                adapted.complete(Result.errors(((Failure) cause).problems));
+            } else {
+                adapted.completeExceptionally(cause);
+            }
+        });
+        return new AsyncResult<>(adapted);
+    }
+
+    public <R> AsyncResult<R> map(Function<V, R> mapper) {
+        return new AsyncResult<>(stage.thenApply(r -> r.map(mapper)));
+    }
+
+    public <R> AsyncResult<R> flatMap(Function<V, AsyncResult<R>> mapper) {
+        return new AsyncResult<>(stage.thenCompose(r -> {
+            if (r.isError()) {
+                return CompletableFuture.completedFuture(r.<R>mapErrors());
+            }
+            return mapper.apply(r.getValue()).stage;
+        }));
+    }
+
+    /**
+     * Combines two async results. When any of them is an error, the problems
+     * of both are accumulated.
+     *
+     * @param <U> the other value type
+     * @param <R> the combined value type
+     * @param other the other async result
+     * @param combiner combines the two values
+     * @return the combined async result
+     */
+    public <U, R> AsyncResult<R> zip(AsyncResult<U> other, BiFunction<V, U, R> combiner) {
+        return new AsyncResult<>(stage.thenCombine(other.stage, (l, r) -> {
+            if (!l.isError() && !r.isError()) {
+                return Result.value(combiner.apply(l.getValue(), r.getValue()));
+            }
+            return Result.errors(Result.problems(l, r));
+        }));
+    }
+
+    /**
+     * Accumulates the problems of the given async results.
+     *
+     * @param first the first async result
+     * @param others other async results
+     * @return a future completing with the accumulated problems
+     */
+    public static CompletableFuture<List<Problem>> problems(AsyncResult<?> first, AsyncResult<?>... others) {
+        final CompletableFuture<?>[] stages = new CompletableFuture<?>[others.length + 1];
+        stages[0] = first.stage;
+        for (int i = 0; i != others.length; ++i) {
+            stages[i + 1] = others[i].stage;
+        }
+        return CompletableFuture.allOf(stages).thenApply(v -> {
+            List<Problem> problems = null;
+            for (CompletableFuture<?> s : stages) {
+                final List<Problem> errors = ((Result<?>) s.join()).getErrors();
+                if (errors.isEmpty()) {
+                    continue;
+                }
+                if (problems == null) {
+                    problems = new ArrayList<>(errors);
+                } else {
+                    problems.addAll(errors);
+                }
+            }
+            return problems == null ? Collections.emptyList() : problems;
+        });
+    }
+
+    public CompletableFuture<Result<V>> toResult() {
+        return stage;
+    }
+
+    /**
+     * @return a future completing with the value, or exceptionally with a
+     * stackless {@link Failure} carrying the problems
+     */
+    public CompletableFuture<V> toFuture() {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        stage.whenComplete((r, ex) -> {
+            if (ex != null) {
+                future.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            } else if (r.isError()) {
+                future.completeExceptionally(Failure.stackless(r.getErrors()));
+            } else {
+                future.complete(r.getValue());
+            }
+        });
+        return future;
+    }
+
+}
@@ -0,0 +1,237 @@
+package net.optionfactory.problems;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Function;
+
+/**
+ * Validates the items of a batch in parallel chunks, reporting the problems
+ * of each item with its index prefixed to the context (e.g.
+ * {@code items[42].email}). Validation stops once more problems than the
+ * limit are found: the reported problems are then the first ones in item
+ * order, followed by a {@link ProblemTypes#truncated} problem counting the
+ * problems found beyond the limit. Validators throwing a
+ * {@link Failure} contribute the failure problems; any other exception is
+ * rethrown.
+ * <code>
+ * BatchValidation.of(orders::validate)
+ *         .limit(100)
+ *         .enforce(request.items);
+ * </code>
+ *
+ * @param <T> the item type
+ */
+public class BatchValidation<T> {
+
+    private final Function<? super T, List<Problem>> validator;
+    private Executor executor = ForkJoinPool.commonPool();
+    private int chunkSize = 256;
+    private int maxProblems = Integer.MAX_VALUE;
+    private String path = "items";
+
+    public BatchValidation(Function<? super T, List<Problem>> validator) {
+        this.validator = validator;
+    }
+
+    public static <T> BatchValidation<T> of(Function<? super T, List<Problem>> validator) {
+        return new BatchValidation<>(validator);
+    }
+
+    /**
+     * @param executor the executor validating the chunks, defaults to the
+     * common fork-join pool
+     * @return this batch validation
+     */
+    public BatchValidation<T> on(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @param chunkSize the number of items validated by each task, batches
+     * no larger than a chunk are validated on the calling thread
+     * @return this batch validation
+     */
+    public BatchValidation<T> chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @param maxProblems the number of problems reported, at least one
+     * @return this batch validation
+     */
+    public BatchValidation<T> limit(int maxProblems) {
+        if (maxProblems < 1) {
+            throw new IllegalArgumentException(String.format("problem limit must be positive, got %s", maxProblems));
+        }
+        this.maxProblems = maxProblems;
+        return this;
+    }
+
+    /**
+     * @param path the name of the items in problem contexts, defaults to
+     * {@code items}
+     * @return this batch validation
+     */
+    public BatchValidation<T> path(String path) {
+        this.path = path;
+        return this;
+    }
+
+    /**
+     * Validates the items. Each chunk stops once the items up to its current
+     * one are known to hold more problems than the limit: chunks preceding
+     * that point always run to completion, so the reported problems are the
+     * first ones in item order and unvalidated items are never reported as
+     * valid in between reported ones.
+     *
+     * @param items the items
+     * @return the problems of every item, in item order
+     */
+    public List<Problem> problems(List<? extends T> items) {
+        final AtomicIntegerArray found = new AtomicIntegerArray((items.size() + chunkSize - 1) / chunkSize);
+        final AtomicInteger limitChunk = new AtomicInteger(Integer.MAX_VALUE);
+        final List<List<Problem>> chunks = inChunks(items.size(), (from, to) -> {
+            final int index = from / chunkSize;
+            final List<Problem> problems = new ArrayList<>();
+            for (int i = from; i != to && limitChunk.get() > index; ++i) {
+                final int itemProblems = validate(items, i, problems);
+                if (itemProblems != 0) {
+                    found.addAndGet(index, itemProblems);
+                    markLimit(found, limitChunk);
+                }
+            }
+            return problems;
+        });
+        final List<Problem> problems = new ArrayList<>();
+        long omitted = 0;
+        for (List<Problem> chunk : chunks) {
+            final int taken = Math.min(chunk.size(), maxProblems - problems.size());
+            problems.addAll(chunk.subList(0, taken));
+            omitted += chunk.size() - taken;
+        }
+        if (omitted != 0) {
+            problems.add(ProblemTypes.truncated(omitted));
+        }
+        return problems.isEmpty() ? Collections.emptyList() : problems;
+    }
+
+    /**
+     * Records the first chunk whose prefix holds more problems than the
+     * limit. Counts only grow, so a prefix exceeding the limit with the counts
+     * seen so far exceeds it in the final results too.
+     */
+    private void markLimit(AtomicIntegerArray found, AtomicInteger limitChunk) {
+        long prefix = 0;
+        for (int chunk = 0; chunk != found.length() && chunk < limitChunk.get(); ++chunk) {
+            prefix += found.get(chunk);
+            if (prefix > maxProblems) {
+                limitChunk.accumulateAndGet(chunk, Math::min);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Validates the items, throwing a {@link Failure} when any problem is
+     * reported.
+     *
+     * @param items the items
+     */
+    public void enforce(List<? extends T> items) {
+        Failure.enforce(problems(items));
+    }
+
+    /**
+     * Validates every item, regardless of the problem limit.
+     *
+     * @param items the items
+     * @return a result per item, in item order, with unprefixed problems
+     */
+    public List<Result<T>> results(List<? extends T> items) {
+        final List<List<Result<T>>> chunks = inChunks(items.size(), (from, to) -> {
+            final List<Result<T>> results = new ArrayList<>(to - from);
+            for (int i = from; i != to; ++i) {
+                final T item = items.get(i);
+                final List<Problem> problems = validate(item);
+                results.add(problems.isEmpty() ? Result.value(item) : Result.errors(problems));
+            }
+            return results;
+        });
+        if (chunks.size() == 1) {
+            return chunks.get(0);
+        }
+        final List<Result<T>> results = new ArrayList<>(items.size());
+        chunks.forEach(results::addAll);
+        return results;
+    }
+
+    private List<Problem> validate(T item) {
+        try {
+            final List<Problem> problems = validator.apply(item);
+            return problems == null ? Collections.emptyList() : problems;
+        } catch (Failure failure) {
+            return failure.problems;
+        }
+    }
+
+    private int validate(List<? extends T> items, int index, List<Problem> target) {
+        final List<Problem> itemProblems = validate(items.get(index));
+        for (Problem problem : itemProblems) {
+            target.add(Problem.of(problem.type, indexed(index, problem.context), problem.reason, problem.details));
+        }
+        return itemProblems.size();
+    }
+
+    private String indexed(int index, String context) {
+        final StringBuilder sb = new StringBuilder(path.length() + (context == null ? 0 : context.length()) + 8)
+                .append(path).append('[').append(index).append(']');
+        if (context != null && !context.isEmpty()) {
+            sb.append('.').append(context);
+        }
+        return sb.toString();
+    }
+
+    private <R> List<R> inChunks(int size, Chunk<R> chunk) {
+        if (size <= chunkSize) {
+            return Collections.singletonList(chunk.validate(0, size));
+        }
+        final List<CompletableFuture<R>> futures = new ArrayList<>(size / chunkSize + 1);
+        for (int from = 0; from < size; from += chunkSize) {
+            final int start = from;
+            final int end = Math.min(size, from + chunkSize);
+            futures.add(CompletableFuture.supplyAsync(() -> chunk.validate(start, end), executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException ex) {
+            futures.forEach(f -> f.cancel(false));
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+        final List<R> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<R> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private interface Chunk<R> {
+
+        R validate(int from, int to);
+    }
+}
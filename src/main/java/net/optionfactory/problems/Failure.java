@@ -3,38 +3,66 @@ package net.optionfactory.problems;
 import java.util.Arrays;
 import java.util.List;
 
+/**
+ * An exception carrying a list of {@link Problem}s. The message is built
+ * lazily from the problems the first time {@link #getMessage()} is called.
+ * Stackless failures (see {@link #stackless(List)}) skip the stack trace
+ * capture and are meant for exception-driven validation on hot paths.
+ */
 public class Failure extends RuntimeException {
 
     public final List<Problem> problems;
+    private final String reason;
+    private String message;
 
     public Failure(List<Problem> problems, Throwable cause) {
-        super("problems:" + problems, cause);
-        this.problems = problems;
+        this(problems, null, cause, true);
     }
 
     public Failure(List<Problem> problems, String reason) {
-        super("problems (" + reason + "):" + problems);
-        this.problems = problems;
+        this(problems, reason, null, true);
     }
 
     public Failure(Problem problem, Throwable cause) {
-        super("problems:" + Arrays.asList(problem.toString()), cause);
-        this.problems = Arrays.asList(problem);
+        this(Arrays.asList(problem), null, cause, true);
     }
 
     public Failure(Problem problem, String reason) {
-        super("problems (" + reason + "):" + Arrays.asList(problem.toString()));
-        this.problems = Arrays.asList(problem);
+        this(Arrays.asList(problem), reason, null, true);
     }
 
     public Failure(List<Problem> problems) {
-        super("problems:" + problems.toString());
-        this.problems = problems;
+        this(problems, null, null, true);
     }
 
     public Failure(Problem problem) {
-        super("problems:" + Arrays.asList(problem.toString()));
-        this.problems = Arrays.asList(problem);
+        this(Arrays.asList(problem), null, null, true);
+    }
+
+    protected Failure(List<Problem> problems, String reason, Throwable cause, boolean writableStackTrace) {
+        super(null, cause, true, writableStackTrace);
+        this.problems = problems;
+        this.reason = reason;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = reason == null ? "problems:" + problems : "problems (" + reason + "):" + problems;
+        }
+        return message;
+    }
+
+    public static Failure stackless(List<Problem> problems) {
+        return new Failure(problems, null, null, false);
+    }
+
+    public static Failure stackless(List<Problem> problems, String reason) {
+        return new Failure(problems, reason, null, false);
+    }
+
+    public static Failure stackless(Problem problem) {
+        return new Failure(Arrays.asList(problem), null, null, false);
     }
 
     public static void enforce(List<Problem> problems) {
@@ -57,4 +85,24 @@ public class Failure extends RuntimeException {
         }
         throw new Failure(problems, cause);
     }
+
+    /**
+     * Like {@link #enforce(List)}, throwing a stackless failure.
+     */
+    public static void enforceStackless(List<Problem> problems) {
+        if (problems.isEmpty()) {
+            return;
+        }
+        throw stackless(problems);
+    }
+
+    /**
+     * Like {@link #enforce(List, String)}, throwing a stackless failure.
+     */
+    public static void enforceStackless(List<Problem> problems, String reason) {
+        if (problems.isEmpty()) {
+            return;
+        }
+        throw stackless(problems, reason);
+    }
 }
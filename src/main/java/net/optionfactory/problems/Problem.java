@@ -1,36 +1,71 @@
 package net.optionfactory.problems;
 
-public class Problem {
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.util.Objects;
+
+/**
+ * An immutable problem. Types are interned through {@link ProblemTypes} and
+ * the hash code is cached, so problems can be shared across threads and
+ * used as cache keys (as long as their details are immutable).
+ */
+@JsonPropertyOrder({"type", "context", "reason", "details"})
+public final class Problem {
 
     public static final String NO_CONTEXT = null;
     public static final String NO_DETAILS = null;
 
-    public String type;
-    public String context;
-    public String reason;
-    public Object details;
-
-    public static Problem of(String type, String context, String reason, Object details) {
-        final Problem problem = new Problem();
-        problem.type = type;
-        problem.context = context;
-        problem.reason = reason;
-        problem.details = details;
-        return problem;
+    public final String type;
+    public final String context;
+    public final String reason;
+    public final Object details;
+    private int hash;
+
+    private Problem(String type, String context, String reason, Object details) {
+        this.type = ProblemTypes.intern(type);
+        this.context = context;
+        this.reason = reason;
+        this.details = details;
+    }
+
+    @JsonCreator
+    public static Problem of(@JsonProperty("type") String type, @JsonProperty("context") String context, @JsonProperty("reason") String reason, @JsonProperty("details") Object details) {
+        return new Problem(type, context, reason, details);
     }
 
     public static Problem of(String type, String reason) {
-        final Problem problem = new Problem();
-        problem.type = type;
-        problem.context = NO_CONTEXT;
-        problem.reason = reason;
-        problem.details = NO_DETAILS;
-        return problem;
+        return new Problem(type, NO_CONTEXT, reason, NO_DETAILS);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(type, context, reason, details);
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Problem)) {
+            return false;
+        }
+        final Problem other = (Problem) obj;
+        return Objects.equals(type, other.type)
+                && Objects.equals(context, other.context)
+                && Objects.equals(reason, other.reason)
+                && Objects.equals(details, other.details);
     }
 
     @Override
     public String toString() {
-        return String.format("%s@%s: %s (%s)", type, context, reason, details);
+        return type + "@" + context + ": " + reason + " (" + details + ")";
     }
 
 }
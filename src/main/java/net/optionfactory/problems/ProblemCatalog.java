@@ -0,0 +1,195 @@
+package net.optionfactory.problems;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Localized reason templates, keyed by problem type and compiled once as
+ * {@link MessageFormat}s. Problems created through the catalog carry their
+ * reason rendered in the default locale (templates without arguments are
+ * rendered once) and keep their arguments in {@link Arguments} details, so
+ * that {@link #localize(List, Locale)} can render them again in the
+ * requested locale, e.g. when the resolver writes the response.
+ * <code>
+ * final ProblemCatalog catalog = ProblemCatalog.of(Locale.ENGLISH)
+ *         .reason("QUANTITY_EXCEEDED", "at most {0} items can be ordered")
+ *         .reason("QUANTITY_EXCEEDED", Locale.ITALIAN, "si possono ordinare al massimo {0} articoli");
+ * throw new Failure(catalog.problem("QUANTITY_EXCEEDED", "items", 10));
+ * </code>
+ */
+public class ProblemCatalog {
+
+    private final Locale defaultLocale;
+    private final Map<String, Map<Locale, Template>> templates;
+
+    private ProblemCatalog(Locale defaultLocale, Map<String, Map<Locale, Template>> templates) {
+        this.defaultLocale = defaultLocale;
+        this.templates = templates;
+    }
+
+    public static ProblemCatalog of(Locale defaultLocale) {
+        return new ProblemCatalog(defaultLocale, Collections.emptyMap());
+    }
+
+    public ProblemCatalog reason(String type, String pattern) {
+        return reason(type, defaultLocale, pattern);
+    }
+
+    /**
+     * @param type the problem type
+     * @param locale the locale of the template
+     * @param pattern a {@link MessageFormat} pattern
+     * @return a catalog including the given template
+     */
+    public ProblemCatalog reason(String type, Locale locale, String pattern) {
+        final Map<String, Map<Locale, Template>> t = new HashMap<>(templates);
+        final Map<Locale, Template> byLocale = new HashMap<>(t.getOrDefault(type, Collections.emptyMap()));
+        byLocale.put(locale, new Template(pattern, locale));
+        t.put(type, Collections.unmodifiableMap(byLocale));
+        return new ProblemCatalog(defaultLocale, Collections.unmodifiableMap(t));
+    }
+
+    /**
+     * Creates a problem whose reason is rendered in the default locale.
+     *
+     * @param type the problem type, with a template in the default locale
+     * @param context the problem context
+     * @param arguments the template arguments
+     * @return the problem
+     */
+    public Problem problem(String type, String context, Object... arguments) {
+        final Template template = lookup(type, defaultLocale);
+        if (template == null) {
+            throw new IllegalArgumentException(String.format("no reason template for %s", type));
+        }
+        return Problem.of(type, context, template.render(arguments), new Arguments(template, arguments));
+    }
+
+    /**
+     * Renders the reasons of problems created through the catalog.
+     *
+     * @param problems the problems
+     * @param locale the requested locale, falling back to its language and
+     * then to the default locale
+     * @return the localized problems, the given list when none has arguments
+     */
+    public List<Problem> localize(List<Problem> problems, Locale locale) {
+        List<Problem> localized = null;
+        for (int i = 0; i != problems.size(); ++i) {
+            final Problem problem = problems.get(i);
+            if (!(problem.details instanceof Arguments)) {
+                if (localized != null) {
+                    localized.add(problem);
+                }
+                continue;
+            }
+            if (localized == null) {
+                localized = new ArrayList<>(problems.size());
+                localized.addAll(problems.subList(0, i));
+            }
+            localized.add(Problem.of(problem.type, problem.context, render(problem, locale), null));
+        }
+        return localized == null ? problems : localized;
+    }
+
+    /**
+     * @param problem the problem
+     * @param locale the requested locale
+     * @return the rendered reason, the problem reason when the problem was
+     * not created through the catalog
+     */
+    public String render(Problem problem, Locale locale) {
+        if (!(problem.details instanceof Arguments)) {
+            return problem.reason;
+        }
+        final Arguments arguments = (Arguments) problem.details;
+        final Template template = locale == null ? null : lookup(problem.type, locale);
+        return template == null || template == arguments.template ? problem.reason : template.render(arguments.arguments);
+    }
+
+    private Template lookup(String type, Locale locale) {
+        final Map<Locale, Template> byLocale = templates.get(type);
+        if (byLocale == null) {
+            return null;
+        }
+        final Template exact = byLocale.get(locale);
+        if (exact != null) {
+            return exact;
+        }
+        if (!locale.getCountry().isEmpty() || !locale.getVariant().isEmpty()) {
+            final Template language = byLocale.get(new Locale(locale.getLanguage()));
+            if (language != null) {
+                return language;
+            }
+        }
+        return byLocale.get(defaultLocale);
+    }
+
+    private static class Template {
+
+        private final String pattern;
+        private final MessageFormat format;
+        private final String rendered;
+
+        public Template(String pattern, Locale locale) {
+            this.pattern = pattern;
+            this.format = new MessageFormat(pattern, locale);
+            this.rendered = format.getFormatsByArgumentIndex().length == 0 ? format.format(new Object[0]) : null;
+        }
+
+        public String render(Object[] arguments) {
+            if (rendered != null) {
+                return rendered;
+            }
+            // MessageFormat is not thread-safe
+            return ((MessageFormat) format.clone()).format(arguments);
+        }
+    }
+
+    /**
+     * The details of a problem created through the catalog: the template
+     * arguments, kept to render the reason in other locales. Serialized and
+     * printed as no details.
+     */
+    public static final class Arguments {
+
+        private final Template template;
+        private final Object[] arguments;
+
+        private Arguments(Template template, Object[] arguments) {
+            this.template = template;
+            this.arguments = arguments.clone();
+        }
+
+        @JsonValue
+        public Object details() {
+            return null;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * template.pattern.hashCode() + Arrays.hashCode(arguments);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Arguments)) {
+                return false;
+            }
+            final Arguments other = (Arguments) obj;
+            return template.pattern.equals(other.template.pattern) && Arrays.equals(arguments, other.arguments);
+        }
+
+        @Override
+        public String toString() {
+            return "null";
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package net.optionfactory.problems;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collector;
+
+/**
+ * Compacts large problem lists in a single pass: optionally drops duplicate
+ * problems, groups problems without details sharing type and reason into a
+ * single problem listing their contexts in {@code details.contexts}, and caps
+ * the output at a number of problems, each grouped context counting as a
+ * problem, appending a {@link ProblemTypes#TRUNCATED} problem reporting how
+ * many problems were omitted. Only the compacted output is retained.
+ */
+public class ProblemCompactor {
+
+    private final boolean deduplicate;
+    private final boolean group;
+    private final int maxProblems;
+
+    private ProblemCompactor(boolean deduplicate, boolean group, int maxProblems) {
+        this.deduplicate = deduplicate;
+        this.group = group;
+        this.maxProblems = maxProblems;
+    }
+
+    public static ProblemCompactor deduplicating() {
+        return new ProblemCompactor(true, false, Integer.MAX_VALUE);
+    }
+
+    public static ProblemCompactor retainingDuplicates() {
+        return new ProblemCompactor(false, false, Integer.MAX_VALUE);
+    }
+
+    public ProblemCompactor grouping() {
+        return new ProblemCompactor(deduplicate, true, maxProblems);
+    }
+
+    /**
+     * @param maxProblems the maximum number of problems retained, grouped
+     * contexts included and the truncation marker excluded
+     * @return a compactor capping its output
+     */
+    public ProblemCompactor limit(int maxProblems) {
+        return new ProblemCompactor(deduplicate, group, maxProblems);
+    }
+
+    public List<Problem> compact(Iterable<Problem> problems) {
+        if (problems instanceof List && ((List<Problem>) problems).size() <= 1 && maxProblems >= 1) {
+            return (List<Problem>) problems;
+        }
+        final Accumulator accumulator = new Accumulator();
+        for (Problem problem : problems) {
+            accumulator.add(problem);
+        }
+        return accumulator.finish();
+    }
+
+    public Collector<Problem, ?, List<Problem>> collector() {
+        return Collector.of(Accumulator::new, Accumulator::add, (l, r) -> {
+            for (Object slot : r.slots.values()) {
+                if (slot instanceof Group) {
+                    final Group g = (Group) slot;
+                    for (String context : g.contexts) {
+                        l.add(Problem.of(g.first.type, context, g.first.reason, null));
+                    }
+                } else {
+                    l.add((Problem) slot);
+                }
+            }
+            l.omitted += r.omitted;
+            return l;
+        }, Accumulator::finish);
+    }
+
+    private class Accumulator {
+
+        private final Map<Object, Object> slots = new LinkedHashMap<>();
+        private int retained;
+        private long omitted;
+
+        public void add(Problem problem) {
+            if (group && problem.details == null) {
+                final GroupKey key = new GroupKey(problem.type, problem.reason);
+                final Group existing = (Group) slots.get(key);
+                if (existing != null && existing.contains(problem.context)) {
+                    return;
+                }
+                if (retained >= maxProblems) {
+                    omitted++;
+                    return;
+                }
+                retained++;
+                if (existing != null) {
+                    existing.contexts.add(problem.context);
+                    return;
+                }
+                slots.put(key, new Group(problem, deduplicate));
+                return;
+            }
+            final Object key = deduplicate ? problem : new Object();
+            if (deduplicate && slots.containsKey(key)) {
+                return;
+            }
+            if (retained >= maxProblems) {
+                omitted++;
+                return;
+            }
+            retained++;
+            slots.put(key, problem);
+        }
+
+        public List<Problem> finish() {
+            final List<Problem> compacted = new ArrayList<>(slots.size() + (omitted == 0 ? 0 : 1));
+            for (Object slot : slots.values()) {
+                compacted.add(slot instanceof Group ? ((Group) slot).toProblem() : (Problem) slot);
+            }
+            if (omitted != 0) {
+                compacted.add(ProblemTypes.truncated(omitted));
+            }
+            return compacted;
+        }
+    }
+
+    private static class GroupKey {
+
+        private final String type;
+        private final String reason;
+
+        public GroupKey(String type, String reason) {
+            this.type = type;
+            this.reason = reason;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(type) + Objects.hashCode(reason);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof GroupKey)) {
+                return false;
+            }
+            final GroupKey other = (GroupKey) obj;
+            return Objects.equals(type, other.type) && Objects.equals(reason, other.reason);
+        }
+    }
+
+    private static class Group {
+
+        private final Problem first;
+        private final Collection<String> contexts;
+
+        public Group(Problem first, boolean deduplicate) {
+            this.first = first;
+            this.contexts = deduplicate ? new LinkedHashSet<>() : new ArrayList<>();
+            contexts.add(first.context);
+        }
+
+        /**
+         * @return true when the context is a duplicate to be dropped
+         */
+        public boolean contains(String context) {
+            return contexts instanceof LinkedHashSet && contexts.contains(context);
+        }
+
+        public Problem toProblem() {
+            if (contexts.size() == 1) {
+                return first;
+            }
+            return Problem.of(first.type, Problem.NO_CONTEXT, first.reason, Collections.singletonMap("contexts", new ArrayList<>(contexts)));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package net.optionfactory.problems;
+
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the interned {@link Problem} type codes. Types of problems
+ * built through {@link Problem#of} are interned, so equal types share the
+ * same instance. The registry is bounded: once full, unknown types are used
+ * as they are.
+ */
+public final class ProblemTypes {
+
+    public static final String FIELD_ERROR = "FIELD_ERROR";
+    public static final String OBJECT_ERROR = "OBJECT_ERROR";
+    public static final String INVALID_FORMAT = "INVALID_FORMAT";
+    public static final String UNRECOGNIZED_PROPERTY = "UNRECOGNIZED_PROPERTY";
+    public static final String UNPARSEABLE_MESSAGE = "UNPARSEABLE_MESSAGE";
+    public static final String MESSAGE_NOT_READABLE = "MESSAGE_NOT_READABLE";
+    public static final String CONVERSION_ERROR = "CONVERSION_ERROR";
+    public static final String GENERIC_PROBLEM = "GENERIC_PROBLEM";
+    public static final String FORBIDDEN = "FORBIDDEN";
+    public static final String INTERNAL_ERROR = "INTERNAL_ERROR";
+    public static final String UNEXPECTED_PROBLEM = "UNEXPECTED_PROBLEM";
+    public static final String TRUNCATED = "TRUNCATED";
+
+    private static final int MAX_TYPES = 1024;
+    private static final ConcurrentMap<String, String> TYPES = new ConcurrentHashMap<>();
+
+    static {
+        for (String type : new String[]{FIELD_ERROR, OBJECT_ERROR, INVALID_FORMAT, UNRECOGNIZED_PROPERTY, UNPARSEABLE_MESSAGE, MESSAGE_NOT_READABLE, CONVERSION_ERROR, GENERIC_PROBLEM, FORBIDDEN, INTERNAL_ERROR, UNEXPECTED_PROBLEM, TRUNCATED}) {
+            TYPES.put(type, type);
+        }
+    }
+
+    private ProblemTypes() {
+    }
+
+    /**
+     * @param type the type code
+     * @return the canonical instance of the type code
+     */
+    public static String intern(String type) {
+        if (type == null) {
+            return null;
+        }
+        final String interned = TYPES.get(type);
+        if (interned != null) {
+            return interned;
+        }
+        if (TYPES.size() >= MAX_TYPES) {
+            return type;
+        }
+        final String previous = TYPES.putIfAbsent(type, type);
+        return previous != null ? previous : type;
+    }
+
+    /**
+     * @param omitted the number of problems omitted from a capped list
+     * @return the {@link #TRUNCATED} problem closing a capped list, with the
+     * omitted count in {@code details.omitted}
+     */
+    public static Problem truncated(long omitted) {
+        return Problem.of(TRUNCATED, null, String.format("%s more problems omitted", omitted), Collections.singletonMap("omitted", omitted));
+    }
+}
@@ -1,10 +1,9 @@
 package net.optionfactory.problems;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.springframework.util.Assert;
 
 /**
@@ -29,13 +28,15 @@ public class Result<V> {
     }
 
     public static <ValueType> Result<ValueType> error(Problem error) {
-        final List<Problem> errors = new ArrayList<>();
-        errors.add(error);
-        return new Result<>(errors, null, true);
+        return new Result<>(Collections.singletonList(error), null, true);
     }
 
+    /**
+     * Creates a valued result. The errors of a valued result are a shared,
+     * immutable, empty list.
+     */
     public static <ValueType> Result<ValueType> value(ValueType result) {
-        return new Result<>(new ArrayList<>(), result, false);
+        return new Result<>(Collections.emptyList(), result, false);
     }
 
     public List<Problem> getErrors() {
@@ -52,20 +53,46 @@ public class Result<V> {
 
     public <R> Result<R> map(Function<V, R> mapper) {
         if (isError) {
-            return Result.errors(errors);
+            return retyped();
         }
         return Result.value(mapper.apply(value));
     }
 
+    public <R> Result<R> flatMap(Function<V, Result<R>> mapper) {
+        if (isError) {
+            return retyped();
+        }
+        return mapper.apply(value);
+    }
+
     public <R> Result<R> mapErrors() {
         Assert.isTrue(isError, "cannot call mapErrors on a valued result");
-        return Result.errors(errors);
+        return retyped();
+    }
+
+    public V orElse(V other) {
+        return isError ? other : value;
+    }
+
+    public <R> R fold(Function<List<Problem>, R> onErrors, Function<V, R> onValue) {
+        return isError ? onErrors.apply(errors) : onValue.apply(value);
+    }
+
+    /**
+     * An errored result carries no value, so it can be shared under any value
+     * type.
+     */
+    @SuppressWarnings("unchecked")
+    private <R> Result<R> retyped() {
+        return (Result<R>) this;
     }
 
     public static List<Problem> problems(Result<?> first, Result<?>... others) {
-        return Stream.concat(Stream.of(first), Stream.of(others))
-                .flatMap(r -> r.getErrors().stream())
-                .collect(Collectors.toList());
+        final List<Problem> problems = new ArrayList<>(first.errors);
+        for (Result<?> other : others) {
+            problems.addAll(other.errors);
+        }
+        return problems;
     }
 
     @Override
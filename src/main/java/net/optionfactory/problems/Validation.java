@@ -0,0 +1,153 @@
+package net.optionfactory.problems;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent validation steps concurrently on an executor,
+ * accumulating their problems. On JDK 21+ a virtual thread per task executor
+ * ({@code Executors.newVirtualThreadPerTaskExecutor()}) is a good fit for
+ * blocking steps such as database lookups. Steps throwing a {@link Failure}
+ * contribute the failure problems; any other exception is rethrown.
+ * <code>
+ * final Result&lt;Order&gt; result = Validation.on(executor)
+ *         .check(() -&gt; customers.validate(order.customerId))
+ *         .check(() -&gt; stock.validate(order.items))
+ *         .validate(() -&gt; order);
+ * </code>
+ */
+public class Validation {
+
+    public enum Mode {
+        /**
+         * Returns the problems of the first step reporting any, without
+         * waiting for the other steps.
+         */
+        FAIL_FAST,
+        /**
+         * Waits for every step and returns all the problems, in step order.
+         */
+        COLLECT_ALL
+    }
+
+    private final Executor executor;
+    private final List<Supplier<List<Problem>>> steps = new ArrayList<>();
+    private Mode mode;
+
+    public Validation(Executor executor, Mode mode) {
+        this.executor = executor;
+        this.mode = mode;
+    }
+
+    public static Validation on(Executor executor) {
+        return new Validation(executor, Mode.COLLECT_ALL);
+    }
+
+    public Validation failFast() {
+        this.mode = Mode.FAIL_FAST;
+        return this;
+    }
+
+    public Validation check(Supplier<List<Problem>> step) {
+        steps.add(step);
+        return this;
+    }
+
+    public Validation checkResult(Supplier<? extends Result<?>> step) {
+        steps.add(() -> step.get().getErrors());
+        return this;
+    }
+
+    /**
+     * Runs the validation steps.
+     *
+     * @return the problems reported by the steps
+     */
+    public List<Problem> problems() {
+        if (steps.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (steps.size() == 1) {
+            return run(steps.get(0));
+        }
+        final List<CompletableFuture<List<Problem>>> futures = new ArrayList<>(steps.size());
+        for (Supplier<List<Problem>> step : steps) {
+            futures.add(CompletableFuture.supplyAsync(() -> run(step), executor));
+        }
+        try {
+            return mode == Mode.FAIL_FAST ? firstProblems(futures) : allProblems(futures);
+        } catch (CompletionException ex) {
+            futures.forEach(f -> f.cancel(false));
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Runs the validation steps, supplying the value when no problem is
+     * reported.
+     *
+     * @param <V> the value type
+     * @param value the value supplier
+     * @return the value or the problems reported by the steps
+     */
+    public <V> Result<V> validate(Supplier<V> value) {
+        final List<Problem> problems = problems();
+        return problems.isEmpty() ? Result.value(value.get()) : Result.errors(problems);
+    }
+
+    private static List<Problem> run(Supplier<List<Problem>> step) {
+        try {
+            final List<Problem> problems = step.get();
+            return problems == null ? Collections.emptyList() : problems;
+        } catch (Failure failure) {
+            return failure.problems;
+        }
+    }
+
+    private static List<Problem> allProblems(List<CompletableFuture<List<Problem>>> futures) {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        List<Problem> problems = null;
+        for (CompletableFuture<List<Problem>> future : futures) {
+            final List<Problem> stepProblems = future.join();
+            if (stepProblems.isEmpty()) {
+                continue;
+            }
+            if (problems == null) {
+                problems = new ArrayList<>(stepProblems);
+            } else {
+                problems.addAll(stepProblems);
+            }
+        }
+        return problems == null ? Collections.emptyList() : problems;
+    }
+
+    private static List<Problem> firstProblems(List<CompletableFuture<List<Problem>>> futures) {
+        final CompletableFuture<List<Problem>> first = new CompletableFuture<>();
+        for (CompletableFuture<List<Problem>> future : futures) {
+            future.whenComplete((problems, ex) -> {
+                if (ex != null) {
+                    first.completeExceptionally(ex);
+                } else if (!problems.isEmpty()) {
+                    first.complete(problems);
+                }
+            });
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).whenComplete((v, ex) -> first.complete(Collections.emptyList()));
+        final List<Problem> problems = first.join();
+        futures.forEach(f -> f.cancel(false));
+        return problems;
+    }
+
+}
@@ -0,0 +1,161 @@
+package net.optionfactory.problems.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import net.optionfactory.problems.Failure;
+import net.optionfactory.problems.Problem;
+import net.optionfactory.problems.Result;
+
+/**
+ * Decodes the problems written by
+ * {@link net.optionfactory.problems.web.RestExceptionResolver} in any
+ * streaming format supported by the given mapper (JSON, CBOR, Smile, ...),
+ * rebuilding the {@link Failure} raised by the remote service. The body is
+ * parsed as a stream of tokens: only details are bound through the mapper,
+ * unknown properties are skipped.
+ */
+public class ProblemsDecoder {
+
+    public static final long UNLIMITED = -1;
+
+    private final JsonFactory factory;
+    private final ObjectReader detailsReader;
+    private final long maxBodySize;
+
+    public ProblemsDecoder(ObjectMapper mapper) {
+        this(mapper, UNLIMITED);
+    }
+
+    /**
+     * @param mapper the mapper
+     * @param maxBodySize the maximum number of bytes read from the body,
+     * {@link #UNLIMITED} for no limit
+     */
+    public ProblemsDecoder(ObjectMapper mapper, long maxBodySize) {
+        this.factory = mapper.getFactory();
+        this.detailsReader = mapper.readerFor(Object.class);
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * @param is the response body, left open
+     * @return the decoded problems
+     * @throws IOException if the body cannot be read or decoded, or exceeds
+     * the maximum body size
+     */
+    public List<Problem> decode(InputStream is) throws IOException {
+        try (JsonParser parser = factory.createParser(maxBodySize == UNLIMITED ? is : new LimitedInputStream(is, maxBodySize))) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "expected an array of problems");
+            }
+            final List<Problem> problems = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                problems.add(decodeProblem(parser));
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "expected a problem");
+            }
+            return problems;
+        }
+    }
+
+    /**
+     * @param is the response body, left open
+     * @return a stackless failure carrying the decoded problems
+     * @throws IOException if the body cannot be read or decoded
+     */
+    public Failure decodeFailure(InputStream is) throws IOException {
+        return Failure.stackless(decode(is));
+    }
+
+    public <V> Result<V> decodeResult(InputStream is) throws IOException {
+        return Result.errors(decode(is));
+    }
+
+    private Problem decodeProblem(JsonParser parser) throws IOException {
+        String type = null;
+        String context = null;
+        String reason = null;
+        Object details = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+            switch (field) {
+                case "type":
+                    type = parser.getValueAsString();
+                    break;
+                case "context":
+                    context = parser.getValueAsString();
+                    break;
+                case "reason":
+                    reason = parser.getValueAsString();
+                    break;
+                case "details":
+                    details = value == JsonToken.VALUE_NULL ? null : detailsReader.readValue(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return Problem.of(type, context, reason, details);
+    }
+
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long remaining;
+
+        public LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                consumed(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, (int) Math.min(len, remaining + 1));
+            if (read > 0) {
+                consumed(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final long skipped = super.skip(Math.min(n, remaining + 1));
+            consumed(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void consumed(long n) throws IOException {
+            remaining -= n;
+            if (remaining < 0) {
+                throw new IOException(String.format("problems body exceeds %s bytes", limit));
+            }
+        }
+    }
+}
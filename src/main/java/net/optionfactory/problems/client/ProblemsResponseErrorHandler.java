@@ -0,0 +1,53 @@
+package net.optionfactory.problems.client;
+
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.util.List;
+import net.optionfactory.problems.Problem;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * A {@link org.springframework.web.client.RestTemplate} error handler
+ * throwing a {@link RemoteFailure} with the status and the problems of error
+ * responses of the given media type. Other error responses, and those with
+ * an empty body, are handled as in {@link DefaultResponseErrorHandler}.
+ * <code>
+ * restTemplate.setErrorHandler(new ProblemsResponseErrorHandler(MediaType.APPLICATION_JSON, new ProblemsDecoder(mapper, 64 * 1024)));
+ * </code>
+ */
+public class ProblemsResponseErrorHandler extends DefaultResponseErrorHandler {
+
+    private final MediaType mediaType;
+    private final ProblemsDecoder decoder;
+
+    public ProblemsResponseErrorHandler(MediaType mediaType, ProblemsDecoder decoder) {
+        this.mediaType = mediaType;
+        this.decoder = decoder;
+    }
+
+    @Override
+    public void handleError(ClientHttpResponse response) throws IOException {
+        final MediaType contentType = response.getHeaders().getContentType();
+        if (contentType == null || !mediaType.isCompatibleWith(contentType)) {
+            super.handleError(response);
+            return;
+        }
+        final PushbackInputStream body = new PushbackInputStream(response.getBody());
+        final int first = body.read();
+        if (first == -1) {
+            super.handleError(response);
+            return;
+        }
+        body.unread(first);
+        final List<Problem> problems;
+        try {
+            problems = decoder.decode(body);
+        } catch (IOException ex) {
+            throw new RestClientException(String.format("could not decode the problems of a %s response", response.getRawStatusCode()), ex);
+        }
+        throw new RemoteFailure(response.getRawStatusCode(), problems);
+    }
+}
@@ -0,0 +1,31 @@
+package net.optionfactory.problems.client;
+
+import java.util.List;
+import net.optionfactory.problems.Failure;
+import net.optionfactory.problems.Problem;
+import org.springframework.http.HttpStatus;
+
+/**
+ * A stackless {@link Failure} rebuilt from the problems of an error response,
+ * carrying the response status.
+ */
+public class RemoteFailure extends Failure {
+
+    private final int rawStatusCode;
+
+    public RemoteFailure(int rawStatusCode, List<Problem> problems) {
+        super(problems, String.format("HTTP %s", rawStatusCode), null, false);
+        this.rawStatusCode = rawStatusCode;
+    }
+
+    public int getRawStatusCode() {
+        return rawStatusCode;
+    }
+
+    /**
+     * @return the response status, null when it is not a known one
+     */
+    public HttpStatus getStatusCode() {
+        return HttpStatus.resolve(rawStatusCode);
+    }
+}
@@ -0,0 +1,46 @@
+package net.optionfactory.problems.web;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Supplier;
+import net.optionfactory.problems.Problem;
+import org.springframework.web.servlet.View;
+
+/**
+ * Renders problems as CBOR ({@code application/cbor}), a compact binary
+ * format suited to service-to-service calls. Requires
+ * {@code jackson-dataformat-cbor}; problems can be decoded on the client side
+ * with {@link net.optionfactory.problems.client.ProblemsDecoder}.
+ * <code>
+ * suppliers.put(MediaType.APPLICATION_JSON, new JsonViewFactory(new ObjectMapper()));
+ * suppliers.put(MediaType.APPLICATION_CBOR, new CborViewFactory(new CBORMapper()));
+ * </code>
+ */
+public class CborViewFactory implements Supplier<View>, ProblemsWriter {
+
+    private final JacksonProblemsWriter writer;
+    private final ProblemsWriterView view;
+
+    public CborViewFactory(CBORMapper mapper) {
+        this.writer = JacksonProblemsWriter.cbor(mapper);
+        this.view = new ProblemsWriterView(writer);
+    }
+
+    @Override
+    public View get() {
+        return view;
+    }
+
+    @Override
+    public String getContentType() {
+        return writer.getContentType();
+    }
+
+    @Override
+    public void write(List<Problem> problems, OutputStream os) throws IOException {
+        writer.write(problems, os);
+    }
+
+}
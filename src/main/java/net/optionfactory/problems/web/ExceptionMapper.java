@@ -0,0 +1,22 @@
+package net.optionfactory.problems.web;
+
+import net.optionfactory.problems.web.RestExceptionResolver.HttpStatusAndFailures;
+import org.apache.commons.logging.Log;
+
+/**
+ * Maps an exception to the status and the problems reported to the client.
+ *
+ * @param <T> the handled exception type
+ */
+@FunctionalInterface
+public interface ExceptionMapper<T extends Throwable> {
+
+    /**
+     * @param ex the exception to be mapped
+     * @param requestUri the uri of the failed request, for logging purposes
+     * @param logger the logger of the resolver
+     * @return the status and problems, or null when the exception should be
+     * handled as an unmapped one
+     */
+    HttpStatusAndFailures map(T ex, String requestUri, Log logger);
+}
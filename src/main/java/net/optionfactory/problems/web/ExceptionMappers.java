@@ -0,0 +1,249 @@
+package net.optionfactory.problems.web;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import net.optionfactory.problems.Failure;
+import net.optionfactory.problems.Problem;
+import net.optionfactory.problems.ProblemTypes;
+import net.optionfactory.problems.web.RestExceptionResolver.HttpStatusAndFailures;
+import org.apache.commons.logging.Log;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.util.ClassUtils;
+import org.springframework.validation.BindException;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A registry of {@link ExceptionMapper}s. The mapper for an exception class
+ * is the first registered one whose type is assignable from it: mappers
+ * registered through {@link #register(Class, ExceptionMapper)} are consulted
+ * before the built-in ones. Lookups, including the {@link ResponseStatus}
+ * annotation lookup and negative results, are cached per exception class.
+ */
+public class ExceptionMappers {
+
+    private static final boolean SERVLET_PRESENT = ClassUtils.isPresent("javax.servlet.ServletException", ExceptionMappers.class.getClassLoader());
+
+    private final List<Function<Class<?>, ExceptionMapper<Throwable>>> custom = new CopyOnWriteArrayList<>();
+    private final List<Function<Class<?>, ExceptionMapper<Throwable>>> builtin = new CopyOnWriteArrayList<>();
+    private volatile ClassValue<ExceptionMapper<Throwable>> byClass = newCache();
+
+    /**
+     * Creates a registry with the built-in mappers.
+     *
+     * @return the registry
+     */
+    public static ExceptionMappers withDefaults() {
+        final ExceptionMappers mappers = new ExceptionMappers();
+        mappers.builtin(HttpMessageNotReadableException.class, ExceptionMappers::messageNotReadable);
+        mappers.builtin(BindException.class, (ex, requestUri, logger) -> {
+            final List<Problem> failures = bindingFailures(ex.getGlobalErrors(), ex.getFieldErrors());
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Binding failure at %s: %s", requestUri, failures));
+            }
+            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, failures);
+        });
+        mappers.builtin(MethodArgumentNotValidException.class, (ex, requestUri, logger) -> {
+            final List<Problem> failures = bindingFailures(ex.getBindingResult().getGlobalErrors(), ex.getBindingResult().getFieldErrors());
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Invalid method argument at %s: %s", requestUri, failures));
+            }
+            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, failures);
+        });
+        mappers.builtin(MethodArgumentTypeMismatchException.class, (ex, requestUri, logger) -> {
+            // Handles type errors in path variables (Es. not-numeric string when expecting an int)
+            final String parameterName = ex.getParameter().getParameterName();
+            final String parameterType = ex.getParameter().getParameterType().toGenericString();
+            final Object value = ex.getValue();
+            final String sourceType = value == null ? "null" : value.getClass().toGenericString();
+            final List<Problem> failures = Collections.singletonList(Problem.of(ProblemTypes.CONVERSION_ERROR, parameterName, String.format("Failed to convert value of type '%s' to '%s'.", sourceType, parameterType), Problem.NO_DETAILS));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Conversion error for argument %s expected type %s found type %s at %s: %s", parameterName, parameterType, sourceType, requestUri, failures));
+            }
+            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, failures);
+        });
+        if (SERVLET_PRESENT) {
+            servletMappers(mappers);
+        }
+        mappers.builtin(ResponseStatusException.class, (ex, requestUri, logger) -> {
+            final Problem problem = Problem.of(ex.getStatus().name(), ex.getReason());
+            return new HttpStatusAndFailures(ex.getStatus(), Collections.singletonList(problem));
+        });
+        mappers.builtin.add(type -> {
+            final ResponseStatus responseStatus = AnnotationUtils.findAnnotation(type, ResponseStatus.class);
+            return responseStatus == null ? null : (ex, requestUri, logger) -> responseStatus(responseStatus, ex, requestUri, logger);
+        });
+        mappers.builtin(Failure.class, (ex, requestUri, logger) -> {
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Failure at %s", requestUri), ex);
+            }
+            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, ex.problems);
+        });
+        mappers.builtin(AccessDeniedException.class, (ex, requestUri, logger) -> {
+            final Problem problem = Problem.of(ProblemTypes.FORBIDDEN, null, ex.getMessage(), null);
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Access denied at %s: %s", requestUri, problem));
+            }
+            return new HttpStatusAndFailures(HttpStatus.FORBIDDEN, Collections.singletonList(problem));
+        });
+        return mappers;
+    }
+
+    private static void servletMappers(ExceptionMappers mappers) {
+        mappers.builtin(MissingServletRequestPartException.class, (ex, requestUri, logger) -> {
+            // Handles missing multipart request part
+            final Problem problem = Problem.of(ProblemTypes.FIELD_ERROR, ex.getRequestPartName(), "Required request part is not present", Problem.NO_DETAILS);
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Missing required part %s of multipart request: %s", ex.getRequestPartName(), requestUri));
+            }
+            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, Collections.singletonList(problem));
+        });
+    }
+
+    /**
+     * Registers a mapper for the given exception type. Registered mappers
+     * take precedence over built-in ones and are consulted in registration
+     * order.
+     *
+     * @param <T> the exception type
+     * @param type the exception type
+     * @param mapper the mapper
+     * @return this registry
+     */
+    public <T extends Throwable> ExceptionMappers register(Class<T> type, ExceptionMapper<? super T> mapper) {
+        custom.add(binding(type, mapper));
+        byClass = newCache();
+        return this;
+    }
+
+    /**
+     * @param type the exception type
+     * @return the mapper for the exception type, or null if none is
+     * registered
+     */
+    public ExceptionMapper<Throwable> lookup(Class<?> type) {
+        return byClass.get(type);
+    }
+
+    private <T extends Throwable> void builtin(Class<T> type, ExceptionMapper<? super T> mapper) {
+        builtin.add(binding(type, mapper));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> Function<Class<?>, ExceptionMapper<Throwable>> binding(Class<T> type, ExceptionMapper<? super T> mapper) {
+        final ExceptionMapper<Throwable> erased = (ExceptionMapper<Throwable>) mapper;
+        return candidate -> type.isAssignableFrom(candidate) ? erased : null;
+    }
+
+    private ClassValue<ExceptionMapper<Throwable>> newCache() {
+        return new ClassValue<ExceptionMapper<Throwable>>() {
+            @Override
+            protected ExceptionMapper<Throwable> computeValue(Class<?> type) {
+                for (Function<Class<?>, ExceptionMapper<Throwable>> binding : custom) {
+                    final ExceptionMapper<Throwable> mapper = binding.apply(type);
+                    if (mapper != null) {
+                        return mapper;
+                    }
+                }
+                for (Function<Class<?>, ExceptionMapper<Throwable>> binding : builtin) {
+                    final ExceptionMapper<Throwable> mapper = binding.apply(type);
+                    if (mapper != null) {
+                        return mapper;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private static HttpStatusAndFailures messageNotReadable(HttpMessageNotReadableException ex, String requestUri, Log logger) {
+        final Throwable cause = ex.getCause();
+        if (cause instanceof UnrecognizedPropertyException) {
+            final UnrecognizedPropertyException inner = (UnrecognizedPropertyException) cause;
+            final UnrecognizedPropertyDetails details = UnrecognizedPropertyDetails.of(inner.getReferringClass(), inner.getKnownPropertyIds());
+            final Problem failure = Problem.of(ProblemTypes.UNRECOGNIZED_PROPERTY, inner.getPropertyName(), "unrecognized field", details);
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Unrecognized property at %s: %s", requestUri, failure));
+            }
+            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, Arrays.asList(failure));
+        }
+        if (cause instanceof InvalidFormatException) {
+            final InvalidFormatException inner = (InvalidFormatException) cause;
+            final String path = inner.getPath().stream().map(p -> p.getFieldName()).collect(Collectors.joining("."));
+            final Problem failure = Problem.of(ProblemTypes.INVALID_FORMAT, path, inner.getMessage(), null);
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Invalid format at %s: %s", requestUri, failure));
+            }
+            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, Arrays.asList(failure));
+        }
+        if (cause instanceof JsonMappingException) {
+            final JsonMappingException inner = (JsonMappingException) cause;
+            final String path = inner.getPath().stream().map(p -> p.getFieldName()).collect(Collectors.joining("."));
+            final Problem failure = Problem.of(ProblemTypes.INVALID_FORMAT, path, inner.getMessage(), null);
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Json mapping exception at %s: %s", requestUri, failure));
+            }
+            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, Arrays.asList(failure));
+        }
+        if (cause instanceof JsonParseException) {
+            final JsonParseException inner = (JsonParseException) cause;
+            final Problem failure = Problem.of(ProblemTypes.UNPARSEABLE_MESSAGE, Problem.NO_CONTEXT, cause.getMessage(), UnparseableMessageDetails.of(inner.getLocation()));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Unparseable message: %s", failure.toString()));
+            }
+            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, Arrays.asList(failure));
+        }
+        final Problem failure = Problem.of(ProblemTypes.MESSAGE_NOT_READABLE, Problem.NO_CONTEXT, cause != null ? cause.getMessage() : ex.getMessage(), Problem.NO_DETAILS);
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("Unreadable message at %s: %s", requestUri, failure));
+        }
+        return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, Arrays.asList(failure));
+    }
+
+    private static HttpStatusAndFailures responseStatus(ResponseStatus responseStatus, Throwable ex, String requestUri, Log logger) {
+        if (ex instanceof Failure) {
+            final Failure failure = (Failure) ex;
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Failure at %s", requestUri), failure);
+            }
+            return new HttpStatusAndFailures(responseStatus.value(), failure.problems);
+        }
+        final String reason = responseStatus.reason().isEmpty() ? ex.getMessage() : responseStatus.reason();
+        final Problem problem = Problem.of(ProblemTypes.GENERIC_PROBLEM, null, reason, null);
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("Failure at %s: %s", requestUri, problem));
+        }
+        return new HttpStatusAndFailures(responseStatus.value(), Collections.singletonList(problem));
+    }
+
+    static List<Problem> bindingFailures(List<ObjectError> globalErrors, List<FieldError> fieldErrors) {
+        final Stream<Problem> globalFailures = globalErrors.stream().map(ExceptionMappers::objectErrorToProblem);
+        final Stream<Problem> fieldFailures = fieldErrors.stream().map(ExceptionMappers::fieldErrorToProblem);
+        return Stream.concat(globalFailures, fieldFailures).collect(Collectors.toList());
+    }
+
+    private static Problem fieldErrorToProblem(FieldError error) {
+        return Problem.of(ProblemTypes.FIELD_ERROR, error.getField(), error.getDefaultMessage(), null);
+    }
+
+    private static Problem objectErrorToProblem(ObjectError error) {
+        return Problem.of(ProblemTypes.OBJECT_ERROR, null, error.getDefaultMessage(), null);
+    }
+}
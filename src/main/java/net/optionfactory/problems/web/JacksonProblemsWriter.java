@@ -0,0 +1,64 @@
+package net.optionfactory.problems.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import net.optionfactory.problems.Problem;
+
+/**
+ * A {@link ProblemsWriter} serializing problems with a Jackson
+ * {@link ObjectWriter} built once. The target stream is never closed.
+ */
+public class JacksonProblemsWriter implements ProblemsWriter {
+
+    private final ObjectWriter writer;
+    private final String contentType;
+
+    public JacksonProblemsWriter(ObjectWriter writer, String contentType) {
+        this.writer = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.contentType = contentType;
+    }
+
+    public static JacksonProblemsWriter json(ObjectMapper mapper) {
+        return new JacksonProblemsWriter(mapper.writerFor(new TypeReference<List<Problem>>() {
+        }), "application/json;charset=UTF-8");
+    }
+
+    /**
+     * @param mapper a mapper whose factory produces CBOR, e.g. a CBORMapper
+     * @return the writer
+     * @throws IllegalArgumentException if the mapper does not produce CBOR
+     */
+    public static JacksonProblemsWriter cbor(ObjectMapper mapper) {
+        if (!"CBOR".equals(mapper.getFactory().getFormatName())) {
+            throw new IllegalArgumentException(String.format("expected a CBOR mapper, got a %s one", mapper.getFactory().getFormatName()));
+        }
+        return new JacksonProblemsWriter(mapper.writerFor(new TypeReference<List<Problem>>() {
+        }), "application/cbor");
+    }
+
+    /**
+     * The root element is named after the runtime list type, as in
+     * {@link org.springframework.web.servlet.view.xml.MappingJackson2XmlView}.
+     *
+     * @param mapper an XmlMapper
+     * @return the writer
+     */
+    public static JacksonProblemsWriter xml(ObjectMapper mapper) {
+        return new JacksonProblemsWriter(mapper.writer(), "application/xml;charset=UTF-8");
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public void write(List<Problem> problems, OutputStream os) throws IOException {
+        writer.writeValue(os, problems);
+    }
+}
@@ -1,25 +1,41 @@
 package net.optionfactory.problems.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 import java.util.function.Supplier;
+import net.optionfactory.problems.Problem;
 import org.springframework.web.servlet.View;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
-public class JsonViewFactory implements Supplier<View> {
+public class JsonViewFactory implements Supplier<View>, ProblemsWriter {
 
-    private final ObjectMapper mapper;
+    private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+    private final JacksonProblemsWriter writer;
+    private final MappingJackson2JsonView view;
 
     public JsonViewFactory(ObjectMapper mapper) {
-        this.mapper = mapper;
+        this.writer = JacksonProblemsWriter.json(mapper);
+        this.view = new MappingJackson2JsonView();
+        this.view.setExtractValueFromSingleKeyModel(true);
+        this.view.setObjectMapper(mapper);
+        this.view.setContentType(CONTENT_TYPE);
     }
 
     @Override
     public View get() {
-        final MappingJackson2JsonView view = new MappingJackson2JsonView();
-        view.setExtractValueFromSingleKeyModel(true);
-        view.setObjectMapper(mapper);
-        view.setContentType("application/json;charset=UTF-8");
         return view;
     }
 
+    @Override
+    public String getContentType() {
+        return writer.getContentType();
+    }
+
+    @Override
+    public void write(List<Problem> problems, OutputStream os) throws IOException {
+        writer.write(problems, os);
+    }
+
 }
@@ -0,0 +1,216 @@
+package net.optionfactory.problems.web;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Limits how many resolutions of each exception class are logged per
+ * interval. {@link net.optionfactory.problems.Failure}s are limited per type
+ * of their first problem instead, so that a flood of one problem type does
+ * not silence the others. Resolutions over the limit are not logged
+ * (optionally letting through one every N of them) and are reported as an
+ * aggregate "suppressed" summary by the next logged resolution of the same
+ * bucket, or at the latest by the first resolution (of any bucket) after the
+ * interval rolls over.
+ */
+public class LogThrottlingPolicy {
+
+    private final int permits;
+    private final Duration interval;
+    private final int sampleEvery;
+    private final Map<Class<? extends Throwable>, Integer> overrides;
+    private final Map<String, Integer> problemTypeOverrides;
+
+    private LogThrottlingPolicy(int permits, Duration interval, int sampleEvery, Map<Class<? extends Throwable>, Integer> overrides, Map<String, Integer> problemTypeOverrides) {
+        this.permits = permits;
+        this.interval = interval;
+        this.sampleEvery = sampleEvery;
+        this.overrides = overrides;
+        this.problemTypeOverrides = problemTypeOverrides;
+    }
+
+    /**
+     * @param permits the number of resolutions logged per interval for each
+     * exception class
+     * @param interval the interval
+     * @return the policy
+     */
+    public static LogThrottlingPolicy perInterval(int permits, Duration interval) {
+        return new LogThrottlingPolicy(permits, interval, 0, new LinkedHashMap<>(), new LinkedHashMap<>());
+    }
+
+    /**
+     * @param type the exception type (subclasses included)
+     * @param permits the number of resolutions logged per interval
+     * @return a policy with a different limit for the given exception type
+     */
+    public LogThrottlingPolicy limit(Class<? extends Throwable> type, int permits) {
+        final Map<Class<? extends Throwable>, Integer> o = new LinkedHashMap<>(overrides);
+        o.put(type, permits);
+        return new LogThrottlingPolicy(this.permits, interval, sampleEvery, o, problemTypeOverrides);
+    }
+
+    /**
+     * @param problemType the type of the first problem of a failure
+     * @param permits the number of resolutions logged per interval
+     * @return a policy with a different limit for the given problem type
+     */
+    public LogThrottlingPolicy limit(String problemType, int permits) {
+        final Map<String, Integer> o = new LinkedHashMap<>(problemTypeOverrides);
+        o.put(problemType, permits);
+        return new LogThrottlingPolicy(this.permits, interval, sampleEvery, overrides, o);
+    }
+
+    /**
+     * @param sampleEvery logs one every sampleEvery resolutions over the
+     * limit, 0 to suppress them all
+     * @return a policy sampling resolutions over the limit
+     */
+    public LogThrottlingPolicy sampleEvery(int sampleEvery) {
+        return new LogThrottlingPolicy(permits, interval, sampleEvery, overrides, problemTypeOverrides);
+    }
+
+    Bucket newBucket(Class<?> type) {
+        return new Bucket(type.getName(), permits(type), interval.toNanos(), sampleEvery);
+    }
+
+    Bucket newBucket(Class<?> type, String problemType) {
+        final Integer p = problemTypeOverrides.get(problemType);
+        return new Bucket(String.format("%s failures", problemType), p != null ? p : permits(type), interval.toNanos(), sampleEvery);
+    }
+
+    private int permits(Class<?> type) {
+        for (Map.Entry<Class<? extends Throwable>, Integer> override : overrides.entrySet()) {
+            if (override.getKey().isAssignableFrom(type)) {
+                return override.getValue();
+            }
+        }
+        return permits;
+    }
+
+    Throttler newThrottler() {
+        return new Throttler(this);
+    }
+
+    /**
+     * The buckets of each exception class and problem type, flushing their
+     * suppressed counts once per interval so that the summary of the tail of
+     * a storm is reported even if the bucket is not logged again.
+     */
+    static class Throttler {
+
+        private static final int MAX_PROBLEM_TYPES = 256;
+
+        private final LogThrottlingPolicy policy;
+        private final long intervalNanos;
+        private final Map<String, Bucket> registered = new ConcurrentHashMap<>();
+        private final Map<String, Bucket> problemTypeBuckets = new ConcurrentHashMap<>();
+        private final AtomicLong nextFlush;
+        private final ClassValue<Bucket> buckets;
+
+        public Throttler(LogThrottlingPolicy policy) {
+            this.policy = policy;
+            this.intervalNanos = policy.interval.toNanos();
+            this.nextFlush = new AtomicLong(System.nanoTime() + intervalNanos);
+            this.buckets = new ClassValue<Bucket>() {
+                @Override
+                protected Bucket computeValue(Class<?> type) {
+                    return registered.computeIfAbsent(type.getName(), name -> policy.newBucket(type));
+                }
+            };
+        }
+
+        public Bucket bucket(Class<?> type) {
+            return buckets.get(type);
+        }
+
+        /**
+         * @param type the failure class
+         * @param problemType the type of the first problem of the failure
+         * @return the bucket of the problem type, or of the failure class
+         * once too many problem types have been seen
+         */
+        public Bucket bucket(Class<?> type, String problemType) {
+            final Bucket bucket = problemTypeBuckets.get(problemType);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (problemTypeBuckets.size() >= MAX_PROBLEM_TYPES) {
+                return bucket(type);
+            }
+            return problemTypeBuckets.computeIfAbsent(problemType, t -> {
+                final Bucket created = policy.newBucket(type, t);
+                registered.put(created.name, created);
+                return created;
+            });
+        }
+
+        /**
+         * Reports the suppressed counts of every bucket when the interval
+         * has elapsed since the last flush.
+         *
+         * @param summary receives the bucket name and its suppressed count
+         */
+        public void flushIfDue(BiConsumer<String, Long> summary) {
+            final long now = System.nanoTime();
+            final long due = nextFlush.get();
+            if (now - due < 0 || !nextFlush.compareAndSet(due, now + intervalNanos)) {
+                return;
+            }
+            flush(summary);
+        }
+
+        public void flush(BiConsumer<String, Long> summary) {
+            registered.forEach((name, bucket) -> {
+                final long suppressed = bucket.drainSuppressed();
+                if (suppressed != 0) {
+                    summary.accept(name, suppressed);
+                }
+            });
+        }
+    }
+
+    /**
+     * A fixed window rate limiter.
+     */
+    static class Bucket {
+
+        public final String name;
+        private final int permits;
+        private final long intervalNanos;
+        private final int sampleEvery;
+        private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+        private final AtomicLong used = new AtomicLong();
+        private final LongAdder suppressed = new LongAdder();
+
+        public Bucket(String name, int permits, long intervalNanos, int sampleEvery) {
+            this.name = name;
+            this.permits = permits;
+            this.intervalNanos = intervalNanos;
+            this.sampleEvery = sampleEvery;
+        }
+
+        public boolean tryAcquire() {
+            final long now = System.nanoTime();
+            final long start = windowStart.get();
+            if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+                used.set(0);
+            }
+            final long n = used.incrementAndGet();
+            if (n <= permits || (sampleEvery > 0 && (n - permits) % sampleEvery == 0)) {
+                return true;
+            }
+            suppressed.increment();
+            return false;
+        }
+
+        public long drainSuppressed() {
+            return suppressed.sumThenReset();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package net.optionfactory.problems.web;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import net.optionfactory.problems.Problem;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+/**
+ * {@link ProblemsMetrics} backed by {@link LongAdder}s, counting resolutions
+ * by exception type, status and problem type and timing resolution (by
+ * exception type) and serialization (by media type). Counters are meant to
+ * be scraped through the accessors.
+ */
+public class LongAdderProblemsMetrics implements ProblemsMetrics {
+
+    private final Map<Class<?>, Timer> exceptions = new ConcurrentHashMap<>();
+    private final Map<MediaType, Timer> serializations = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> problemTypes = new ConcurrentHashMap<>();
+    private final LongAdder[] statuses = new LongAdder[600];
+
+    public LongAdderProblemsMetrics() {
+        for (int i = 0; i != statuses.length; ++i) {
+            statuses[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void resolved(Class<? extends Throwable> exceptionType, HttpStatus status, List<Problem> problems, long nanos) {
+        exceptions.computeIfAbsent(exceptionType, k -> new Timer()).record(nanos);
+        final int code = status.value();
+        if (code < statuses.length) {
+            statuses[code].increment();
+        }
+        for (Problem problem : problems) {
+            if (problem.type != null) {
+                problemTypes.computeIfAbsent(problem.type, k -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    @Override
+    public void serialized(MediaType mediaType, long nanos) {
+        serializations.computeIfAbsent(mediaType, k -> new Timer()).record(nanos);
+    }
+
+    public Map<Class<?>, Timer> exceptions() {
+        return Collections.unmodifiableMap(exceptions);
+    }
+
+    public Map<MediaType, Timer> serializations() {
+        return Collections.unmodifiableMap(serializations);
+    }
+
+    public Map<String, Long> problemTypes() {
+        final Map<String, Long> counts = new TreeMap<>();
+        problemTypes.forEach((type, count) -> counts.put(type, count.sum()));
+        return counts;
+    }
+
+    public Map<Integer, Long> statuses() {
+        final Map<Integer, Long> counts = new TreeMap<>();
+        for (int i = 0; i != statuses.length; ++i) {
+            final long count = statuses[i].sum();
+            if (count != 0) {
+                counts.put(i, count);
+            }
+        }
+        return counts;
+    }
+
+    public static class Timer {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package net.optionfactory.problems.web;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import net.optionfactory.problems.Problem;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Maps problems to the response status and headers, overriding the status
+ * chosen by the exception mappers. Problem types are looked up first, in
+ * problem order, then predicates on the whole problem list, in registration
+ * order. Policies are immutable: types are resolved through a single hash
+ * lookup per problem.
+ * <code>
+ * ProblemStatusPolicy.empty()
+ *         .type("RATE_LIMITED", HttpStatus.TOO_MANY_REQUESTS, retryAfter)
+ *         .when(problems -&gt; problems.size() &gt; 100, HttpStatus.PAYLOAD_TOO_LARGE);
+ * </code>
+ */
+public class ProblemStatusPolicy {
+
+    private final Map<String, StatusAndHeaders> typeToStatus;
+    private final List<Map.Entry<Predicate<List<Problem>>, StatusAndHeaders>> predicates;
+
+    private ProblemStatusPolicy(Map<String, StatusAndHeaders> typeToStatus, List<Map.Entry<Predicate<List<Problem>>, StatusAndHeaders>> predicates) {
+        this.typeToStatus = typeToStatus;
+        this.predicates = predicates;
+    }
+
+    public static ProblemStatusPolicy empty() {
+        return new ProblemStatusPolicy(Collections.emptyMap(), Collections.emptyList());
+    }
+
+    public ProblemStatusPolicy type(String type, HttpStatus status) {
+        return type(type, status, HttpHeaders.EMPTY);
+    }
+
+    /**
+     * @param type the problem type
+     * @param status the status of responses reporting a problem of the given
+     * type
+     * @param headers the headers added to those responses, e.g. Retry-After
+     * @return a policy mapping the given type
+     */
+    public ProblemStatusPolicy type(String type, HttpStatus status, HttpHeaders headers) {
+        final Map<String, StatusAndHeaders> t = new HashMap<>(typeToStatus);
+        t.put(type, new StatusAndHeaders(status, headers));
+        return new ProblemStatusPolicy(Collections.unmodifiableMap(t), predicates);
+    }
+
+    public ProblemStatusPolicy when(Predicate<List<Problem>> predicate, HttpStatus status) {
+        return when(predicate, status, HttpHeaders.EMPTY);
+    }
+
+    /**
+     * @param predicate the predicate on the reported problems
+     * @param status the status of responses whose problems match
+     * @param headers the headers added to those responses
+     * @return a policy mapping matching problem lists
+     */
+    public ProblemStatusPolicy when(Predicate<List<Problem>> predicate, HttpStatus status, HttpHeaders headers) {
+        final List<Map.Entry<Predicate<List<Problem>>, StatusAndHeaders>> p = new ArrayList<>(predicates);
+        p.add(new AbstractMap.SimpleImmutableEntry<>(predicate, new StatusAndHeaders(status, headers)));
+        return new ProblemStatusPolicy(typeToStatus, Collections.unmodifiableList(p));
+    }
+
+    /**
+     * @param problems the reported problems
+     * @return the status and headers for the problems, null when none is
+     * configured
+     */
+    public StatusAndHeaders resolve(List<Problem> problems) {
+        if (!typeToStatus.isEmpty()) {
+            for (Problem problem : problems) {
+                final StatusAndHeaders got = typeToStatus.get(problem.type);
+                if (got != null) {
+                    return got;
+                }
+            }
+        }
+        for (Map.Entry<Predicate<List<Problem>>, StatusAndHeaders> predicate : predicates) {
+            if (predicate.getKey().test(problems)) {
+                return predicate.getValue();
+            }
+        }
+        return null;
+    }
+
+    public static class StatusAndHeaders {
+
+        public final HttpStatus status;
+        public final HttpHeaders headers;
+
+        public StatusAndHeaders(HttpStatus status, HttpHeaders headers) {
+            this.status = status;
+            final HttpHeaders copy = new HttpHeaders();
+            headers.forEach((name, values) -> copy.put(name, Collections.unmodifiableList(new ArrayList<>(values))));
+            this.headers = HttpHeaders.readOnlyHttpHeaders(copy);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package net.optionfactory.problems.web;
+
+import java.util.List;
+import net.optionfactory.problems.Problem;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+/**
+ * Instrumentation hook of {@link RestExceptionResolver}. Implementations
+ * must be thread-safe and cheap: they are invoked on the request thread.
+ */
+public interface ProblemsMetrics {
+
+    /**
+     * A no-op implementation. When configured, the resolver does not take
+     * timings at all.
+     */
+    public static final ProblemsMetrics NONE = new ProblemsMetrics() {
+    };
+
+    /**
+     * Invoked once the exception has been mapped to a status and problems.
+     *
+     * @param exceptionType the type of the resolved exception
+     * @param status the response status
+     * @param problems the reported problems
+     * @param nanos time spent mapping the exception
+     */
+    default void resolved(Class<? extends Throwable> exceptionType, HttpStatus status, List<Problem> problems, long nanos) {
+    }
+
+    /**
+     * Invoked once the problems have been serialized.
+     *
+     * @param mediaType the media type of the serialized problems
+     * @param nanos time spent serializing the problems
+     */
+    default void serialized(MediaType mediaType, long nanos) {
+    }
+}
@@ -0,0 +1,78 @@
+package net.optionfactory.problems.web;
+
+import java.util.List;
+import java.util.Locale;
+import net.optionfactory.problems.Problem;
+import net.optionfactory.problems.ProblemCatalog;
+import net.optionfactory.problems.ProblemCompactor;
+import net.optionfactory.problems.web.RestExceptionResolver.HttpStatusAndFailures;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Processes the problems mapped by {@link RestExceptionResolver} and
+ * {@link ReactiveRestExceptionHandler} before they are written: resolves the
+ * status through the status policy, compacts the problems and renders the
+ * reasons of catalog problems in the request locale, in this order. Every
+ * step is optional and skipped when not configured.
+ */
+public class ProblemsPostProcessor {
+
+    private ProblemStatusPolicy statusPolicy;
+    private ProblemCompactor problemCompactor;
+    private ProblemCatalog problemCatalog;
+
+    /**
+     * Overrides the status of the mapped problems, adding the configured
+     * headers.
+     *
+     * @param statusPolicy the policy, null to report the status chosen by
+     * the exception mappers
+     */
+    public void setStatusPolicy(ProblemStatusPolicy statusPolicy) {
+        this.statusPolicy = statusPolicy;
+    }
+
+    /**
+     * Compacts the reported problems, e.g. deduplicating and capping the
+     * problems of large binding failures.
+     *
+     * @param problemCompactor the compactor, null to report problems as they
+     * are
+     */
+    public void setProblemCompactor(ProblemCompactor problemCompactor) {
+        this.problemCompactor = problemCompactor;
+    }
+
+    /**
+     * Renders the reasons of problems created through the catalog in the
+     * request locale (as of the Accept-Language header).
+     *
+     * @param problemCatalog the catalog, null to report reasons as they are
+     */
+    public void setProblemCatalog(ProblemCatalog problemCatalog) {
+        this.problemCatalog = problemCatalog;
+    }
+
+    /**
+     * @param mapped the status and problems chosen by the exception mappers
+     * @param locale the request locale
+     * @return the status, problems and additional headers to be reported
+     */
+    public Processed process(HttpStatusAndFailures mapped, Locale locale) {
+        final ProblemStatusPolicy.StatusAndHeaders policy = statusPolicy == null ? null : statusPolicy.resolve(mapped.failures);
+        final List<Problem> compacted = problemCompactor == null ? mapped.failures : problemCompactor.compact(mapped.failures);
+        final List<Problem> localized = problemCatalog == null ? compacted : problemCatalog.localize(compacted, locale);
+        return new Processed(policy == null ? mapped.status : policy.status, localized, policy == null ? HttpHeaders.EMPTY : policy.headers);
+    }
+
+    public static class Processed extends HttpStatusAndFailures {
+
+        public final HttpHeaders headers;
+
+        public Processed(HttpStatus status, List<Problem> failures, HttpHeaders headers) {
+            super(status, failures);
+            this.headers = headers;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package net.optionfactory.problems.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import net.optionfactory.problems.Problem;
+import org.springframework.http.MediaType;
+
+/**
+ * A bounded cache of serialized problem responses, keyed on the negotiated
+ * media type and the problem list. Only problem lists whose details are null
+ * or immutable values (strings, numbers, booleans, characters, enums and the
+ * typed details of the built-in mappers) are cached, and only when they are
+ * small enough: longer lists are rendered as usual and bodies over the size
+ * limit are not retained. Lookups are lock free; once full, the least
+ * recently used quarter of the entries is evicted.
+ */
+public class ProblemsResponseCache {
+
+    public static final int DEFAULT_MAX_PROBLEMS = 16;
+    public static final int DEFAULT_MAX_BODY_BYTES = 8 * 1024;
+
+    private final int maxEntries;
+    private final int maxProblems;
+    private final int maxBodyBytes;
+    private final Map<Key, CachedResponse> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ProblemsResponseCache(int maxEntries) {
+        this(maxEntries, DEFAULT_MAX_PROBLEMS, DEFAULT_MAX_BODY_BYTES);
+    }
+
+    /**
+     * @param maxEntries the number of cached responses
+     * @param maxProblems the length of the longest cached problem list
+     * @param maxBodyBytes the size of the largest cached body
+     */
+    public ProblemsResponseCache(int maxEntries, int maxProblems, int maxBodyBytes) {
+        this.maxEntries = maxEntries;
+        this.maxProblems = maxProblems;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public static boolean isCacheable(List<Problem> problems) {
+        for (Problem problem : problems) {
+            if (!isImmutable(problem.details)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the cached response for the given media type and problems,
+     * rendering it with the renderer on a miss. Problem lists over the limit
+     * are rendered straight to the response.
+     *
+     * @param mediaType the media type of the view rendering the problems
+     * @param problems the problems to be written
+     * @param response the response the cached content is written to
+     * @param renderer renders the problems to the given (capturing) response
+     * @throws Exception when rendering fails
+     */
+    public void write(MediaType mediaType, List<Problem> problems, HttpServletResponse response, Renderer renderer) throws Exception {
+        if (problems.size() > maxProblems) {
+            renderer.render(response);
+            return;
+        }
+        final Key key = new Key(mediaType, problems);
+        CachedResponse cached = entries.get(key);
+        if (cached != null) {
+            hits.increment();
+            cached.lastAccess = System.nanoTime();
+            cached.writeTo(response);
+            return;
+        }
+        misses.increment();
+        final CapturingHttpServletResponse capturing = new CapturingHttpServletResponse(response);
+        renderer.render(capturing);
+        cached = capturing.toCachedResponse();
+        if (cached.body.length <= maxBodyBytes) {
+            entries.put(key.detached(), cached);
+            evictIfFull();
+        }
+        cached.writeTo(response);
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final List<Map.Entry<Key, CachedResponse>> byAccess = new ArrayList<>(entries.entrySet());
+            byAccess.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            final int evicted = byAccess.size() - maxEntries + maxEntries / 4;
+            for (int i = 0; i < evicted; ++i) {
+                entries.remove(byAccess.get(i).getKey(), byAccess.get(i).getValue());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    @FunctionalInterface
+    public interface Renderer {
+
+        void render(HttpServletResponse response) throws Exception;
+    }
+
+    private static boolean isImmutable(Object details) {
+        return details == null
+                || details instanceof String
+                || details instanceof Number
+                || details instanceof Boolean
+                || details instanceof Character
+                || details instanceof Enum
+                || details instanceof UnrecognizedPropertyDetails
+                || details instanceof UnparseableMessageDetails;
+    }
+
+    private static class Key {
+
+        private final MediaType mediaType;
+        private final List<Problem> problems;
+        private final int hash;
+
+        public Key(MediaType mediaType, List<Problem> problems) {
+            this.mediaType = mediaType;
+            this.problems = problems;
+            this.hash = 31 * mediaType.hashCode() + problems.hashCode();
+        }
+
+        public Key detached() {
+            return new Key(mediaType, new ArrayList<>(problems));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hash == other.hash && mediaType.equals(other.mediaType) && problems.equals(other.problems);
+        }
+    }
+
+    private static class CachedResponse {
+
+        private final String contentType;
+        private final String characterEncoding;
+        private final List<String[]> headers;
+        private final byte[] body;
+        private volatile long lastAccess = System.nanoTime();
+
+        public CachedResponse(String contentType, String characterEncoding, List<String[]> headers, byte[] body) {
+            this.contentType = contentType;
+            this.characterEncoding = characterEncoding;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public void writeTo(HttpServletResponse response) throws IOException {
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            if (characterEncoding != null) {
+                response.setCharacterEncoding(characterEncoding);
+            }
+            for (String[] header : headers) {
+                response.addHeader(header[0], header[1]);
+            }
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    /**
+     * Records content type, headers and body written by a view instead of
+     * forwarding them to the wrapped response.
+     */
+    private static class CapturingHttpServletResponse extends HttpServletResponseWrapper {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final List<String[]> headers = new ArrayList<>();
+        private String contentType;
+        private String characterEncoding;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        public CapturingHttpServletResponse(HttpServletResponse inner) {
+            super(inner);
+        }
+
+        @Override
+        public void setContentType(String type) {
+            this.contentType = type;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public void setCharacterEncoding(String charset) {
+            this.characterEncoding = charset;
+        }
+
+        @Override
+        public String getCharacterEncoding() {
+            return characterEncoding != null ? characterEncoding : StandardCharsets.ISO_8859_1.name();
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            headers.removeIf(h -> h[0].equalsIgnoreCase(name));
+            headers.add(new String[]{name, value});
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            headers.add(new String[]{name, value});
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            setHeader(name, Integer.toString(value));
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            addHeader(name, Integer.toString(value));
+        }
+
+        @Override
+        public boolean containsHeader(String name) {
+            return headers.stream().anyMatch(h -> h[0].equalsIgnoreCase(name));
+        }
+
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void flushBuffer() {
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return false;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (outputStream == null) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        // writes never block: the stream is always ready
+                        try {
+                            writeListener.onWritePossible();
+                        } catch (IOException | RuntimeException ex) {
+                            writeListener.onError(ex);
+                        }
+                    }
+
+                    @Override
+                    public void write(int b) {
+                        body.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        body.write(b, off, len);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(body, Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        public CachedResponse toCachedResponse() {
+            if (writer != null) {
+                writer.flush();
+            }
+            return new CachedResponse(contentType, characterEncoding, headers, body.toByteArray());
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package net.optionfactory.problems.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import net.optionfactory.problems.Problem;
+
+/**
+ * Serializes a list of problems directly to an output stream, bypassing the
+ * {@link org.springframework.web.servlet.View} machinery. Implementations
+ * must be thread-safe. The view factories implementing it
+ * ({@link JsonViewFactory}, {@link XmlViewFactory}, {@link CborViewFactory})
+ * configure their view once and return that same thread-safe view from every
+ * {@code get()}.
+ */
+public interface ProblemsWriter {
+
+    String getContentType();
+
+    void write(List<Problem> problems, OutputStream os) throws IOException;
+}
@@ -0,0 +1,32 @@
+package net.optionfactory.problems.web;
+
+import java.util.List;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import net.optionfactory.problems.Problem;
+import org.springframework.web.servlet.view.AbstractView;
+
+/**
+ * A view rendering the problems in the {@code errors} model attribute through
+ * a {@link ProblemsWriter}, for formats without a dedicated Spring view.
+ */
+public class ProblemsWriterView extends AbstractView {
+
+    private final ProblemsWriter writer;
+
+    public ProblemsWriterView(ProblemsWriter writer) {
+        this.writer = writer;
+        setContentType(writer.getContentType());
+    }
+
+    @Override
+    protected void renderMergedOutputModel(Map<String, Object> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+        response.setContentType(getContentType());
+        response.addHeader("Cache-Control", "no-store");
+        @SuppressWarnings("unchecked")
+        final List<Problem> problems = (List<Problem>) model.get("errors");
+        writer.write(problems, response.getOutputStream());
+    }
+
+}
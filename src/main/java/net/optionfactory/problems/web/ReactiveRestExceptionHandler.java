@@ -0,0 +1,140 @@
+package net.optionfactory.problems.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import net.optionfactory.problems.Problem;
+import net.optionfactory.problems.ProblemTypes;
+import net.optionfactory.problems.web.RestExceptionResolver.HttpStatusAndFailures;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+/**
+ * The WebFlux counterpart of {@link RestExceptionResolver}: maps exceptions
+ * through the same {@link ExceptionMappers} and writes the problems, as
+ * negotiated through the Accept header, into a single {@link DataBuffer}.
+ * Exceptions not handled by any mapper are reported as an
+ * UNEXPECTED_PROBLEM with status 500.
+ */
+public class ReactiveRestExceptionHandler implements WebExceptionHandler, Ordered {
+
+    private static final Log logger = LogFactory.getLog(ReactiveRestExceptionHandler.class);
+
+    private final LinkedHashMap<MediaType, ProblemsWriter> mediaTypeToWriter;
+    private final int order;
+    private final ExceptionMappers exceptionMappers = ExceptionMappers.withDefaults();
+    private ProblemsPostProcessor postProcessor = new ProblemsPostProcessor();
+
+    public ReactiveRestExceptionHandler(LinkedHashMap<MediaType, ProblemsWriter> mediaTypeToWriter, int order) {
+        this.mediaTypeToWriter = mediaTypeToWriter;
+        this.order = order;
+        this.exceptionMappers.register(WebExchangeBindException.class, (ex, requestUri, log) -> {
+            final List<Problem> failures = ExceptionMappers.bindingFailures(ex.getGlobalErrors(), ex.getFieldErrors());
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Binding failure at %s: %s", requestUri, failures));
+            }
+            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, failures);
+        });
+    }
+
+    /**
+     * Registers a mapper for the given exception type, taking precedence over
+     * the built-in mappers.
+     *
+     * @param <T> the exception type
+     * @param type the exception type
+     * @param mapper the mapper
+     */
+    public <T extends Throwable> void registerExceptionMapper(Class<T> type, ExceptionMapper<? super T> mapper) {
+        exceptionMappers.register(type, mapper);
+    }
+
+    /**
+     * Configures the processing of the mapped problems, e.g. status policy,
+     * compaction and localization (in the exchange locale).
+     *
+     * @param postProcessor the post processor
+     */
+    public void setPostProcessor(ProblemsPostProcessor postProcessor) {
+        this.postProcessor = postProcessor;
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        final ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(ex);
+        }
+        final ProblemsPostProcessor.Processed statusAndErrors = postProcessor.process(toStatusAndErrors(exchange, ex), exchange.getLocaleContext().getLocale());
+        final ProblemsWriter writer = negotiateWriter(exchange.getRequest());
+        final DataBuffer buffer = response.bufferFactory().allocateBuffer();
+        try (OutputStream os = buffer.asOutputStream()) {
+            writer.write(statusAndErrors.failures, os);
+        } catch (IOException writingException) {
+            DataBufferUtils.release(buffer);
+            return Mono.error(writingException);
+        }
+        response.setStatusCode(statusAndErrors.status);
+        response.getHeaders().set(HttpHeaders.CONTENT_TYPE, writer.getContentType());
+        response.getHeaders().set(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.getHeaders().addAll(statusAndErrors.headers);
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    protected HttpStatusAndFailures toStatusAndErrors(ServerWebExchange exchange, Throwable ex) {
+        Throwable unwrapped = ex;
+        while (unwrapped instanceof CompletionException && unwrapped.getCause() != null) {
+            unwrapped = unwrapped.getCause();
+        }
+        final String requestUri = exchange.getRequest().getPath().value();
+        final ExceptionMapper<Throwable> mapper = exceptionMappers.lookup(unwrapped.getClass());
+        final HttpStatusAndFailures mapped = mapper != null ? mapper.map(unwrapped, requestUri, logger) : null;
+        if (mapped != null) {
+            return mapped;
+        }
+        if (logger.isErrorEnabled()) {
+            logger.error(String.format("got an unexpected error while processing request at %s", requestUri), unwrapped);
+        }
+        return new HttpStatusAndFailures(HttpStatus.INTERNAL_SERVER_ERROR, Collections.singletonList(Problem.of(ProblemTypes.UNEXPECTED_PROBLEM, null, unwrapped.getMessage(), null)));
+    }
+
+    private ProblemsWriter negotiateWriter(ServerHttpRequest request) {
+        try {
+            final List<MediaType> mts = new ArrayList<>(request.getHeaders().getAccept());
+            MediaType.sortBySpecificityAndQuality(mts);
+            for (MediaType mt : mts) {
+                for (Map.Entry<MediaType, ProblemsWriter> mediaTypeAndWriter : mediaTypeToWriter.entrySet()) {
+                    if (mt.isCompatibleWith(mediaTypeAndWriter.getKey())) {
+                        return mediaTypeAndWriter.getValue();
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException ex) {
+            // falls back to the first registered writer
+        }
+        return mediaTypeToWriter.values().iterator().next();
+    }
+}
@@ -1,45 +1,38 @@
 package net.optionfactory.problems.web;
 
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.exc.InvalidFormatException;
-import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
 import net.optionfactory.problems.Failure;
 import net.optionfactory.problems.Problem;
+import net.optionfactory.problems.ProblemTypes;
 import java.io.IOException;
-import java.util.Arrays;
+import java.lang.reflect.Method;
 import java.util.Collections;
+import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.impl.NoOpLog;
 import org.springframework.core.annotation.AnnotatedElementUtils;
-import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.converter.HttpMessageNotReadableException;
-import org.springframework.security.access.AccessDeniedException;
-import org.springframework.validation.BindException;
-import org.springframework.validation.FieldError;
-import org.springframework.validation.ObjectError;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.accept.ContentNegotiationManager;
-import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
 import org.springframework.web.bind.annotation.ResponseBody;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.method.HandlerMethod;
-import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
-import org.springframework.web.multipart.support.MissingServletRequestPartException;
-import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.function.HandlerFunction;
 import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
 
 /**
@@ -54,157 +47,327 @@ import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolv
  */
 public class RestExceptionResolver extends DefaultHandlerExceptionResolver {
 
-    private final Map<HandlerMethod, Boolean> methodToIsRest = new ConcurrentHashMap<>();
+    private static final int MAX_MEMOIZED_ACCEPT_HEADERS = 256;
+    private static final int MAX_CLASSIFIED_METHODS = 4096;
+    private static final String LOG_SUPPRESSED_ATTRIBUTE = RestExceptionResolver.class.getName() + ".LOG_SUPPRESSED";
+    private static final Log SUPPRESSED_LOG = new NoOpLog();
+
+    private final Map<Method, Boolean> methodToIsRest = new ConcurrentHashMap<>();
+    private final ClassValue<Boolean> beanTypeToIsRest = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return AnnotatedElementUtils.hasAnnotation(type, ResponseBody.class);
+        }
+    };
     private final ContentNegotiationManager cn;
     private final LinkedHashMap<MediaType, Supplier<View>> mediaTypeToViewFactory;
+    private final boolean acceptOnlyNegotiation;
+    private final Map<String, Map.Entry<MediaType, Supplier<View>>> acceptToViewFactory = new ConcurrentHashMap<>();
+    private final ExceptionMappers exceptionMappers = ExceptionMappers.withDefaults();
+    private ProblemsResponseCache responseCache;
+    private boolean writeDirectly;
+    private ProblemsMetrics metrics = ProblemsMetrics.NONE;
+    private ProblemsPostProcessor postProcessor = new ProblemsPostProcessor();
+    private Predicate<Object> handlerPredicate = handler -> handler instanceof HandlerFunction;
+    private volatile LogThrottlingPolicy.Throttler logThrottler;
 
     public RestExceptionResolver(ContentNegotiationManager cn, LinkedHashMap<MediaType, Supplier<View>> mediaTypeToViewFactory, int order) {
         this.cn = cn;
         this.mediaTypeToViewFactory = mediaTypeToViewFactory;
+        this.acceptOnlyNegotiation = cn.getStrategies().stream().allMatch(s -> s.getClass() == HeaderContentNegotiationStrategy.class);
         this.setOrder(order);
     }
 
     protected HttpStatusAndFailures toStatusAndErrors(HttpServletRequest request, HttpServletResponse response, HandlerMethod hm, Exception ex) {
+        final Exception unwrapped = unwrap(ex);
+        return toStatusAndErrors(request, response, hm, unwrapped, throttledLog(request, unwrapped));
+    }
+
+    private static Exception unwrap(Exception ex) {
+        Exception unwrapped = ex;
+        while ((unwrapped instanceof CompletionException || unwrapped instanceof ExecutionException) && unwrapped.getCause() instanceof Exception) {
+            // failures of async handlers are mapped as if they were thrown
+            unwrapped = (Exception) unwrapped.getCause();
+        }
+        return unwrapped;
+    }
+
+    private HttpStatusAndFailures toStatusAndErrors(HttpServletRequest request, HttpServletResponse response, HandlerMethod hm, Exception ex, Log log) {
         final String requestUri = request.getRequestURI();
-        if (ex instanceof HttpMessageNotReadableException) {
-            final Throwable cause = ex.getCause();
-            if (cause instanceof UnrecognizedPropertyException) {
-                final UnrecognizedPropertyException inner = (UnrecognizedPropertyException) cause;
-                final Map<String, Object> metadata = new ConcurrentHashMap<>();
-                metadata.put("known", inner.getKnownPropertyIds());
-                metadata.put("in", inner.getReferringClass().getSimpleName());
-                final Problem failure = Problem.of("UNRECOGNIZED_PROPERTY", inner.getPropertyName(), "unrecognized field", metadata);
-                logger.debug(String.format("Unrecognized property at %s: %s", requestUri, failure));
-                return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, Arrays.asList(failure));
-            }
-            if (cause instanceof InvalidFormatException) {
-                final InvalidFormatException inner = (InvalidFormatException) cause;
-                final String path = inner.getPath().stream().map(p -> p.getFieldName()).collect(Collectors.joining("."));
-                final Problem failure = Problem.of("INVALID_FORMAT", path, inner.getMessage(), null);
-                logger.debug(String.format("Invalid format at %s: %s", requestUri, failure));
-                return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, Arrays.asList(failure));
-            }
-            if (cause instanceof JsonMappingException) {
-                final JsonMappingException inner = (JsonMappingException) cause;
-                final String path = inner.getPath().stream().map(p -> p.getFieldName()).collect(Collectors.joining("."));
-                final Problem failure = Problem.of("INVALID_FORMAT", path, inner.getMessage(), null);
-                logger.debug(String.format("Json mapping exception at %s: %s", requestUri, failure));
-                return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, Arrays.asList(failure));
-            }
-            if (cause instanceof JsonParseException) {
-                final JsonParseException inner = (JsonParseException) cause;
-                final Map<String, Object> metadata = new ConcurrentHashMap<>();
-                metadata.put("location", inner.getLocation());
-                final Problem failure = Problem.of("UNPARSEABLE_MESSAGE", Problem.NO_CONTEXT, cause.getMessage(), metadata);
-                logger.debug(String.format("Unparseable message: %s", failure.toString()));
-                return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, Arrays.asList(failure));
+        final ExceptionMapper<Throwable> mapper = exceptionMappers.lookup(ex.getClass());
+        final HttpStatusAndFailures mapped = mapper != null ? mapper.map(ex, requestUri, log) : null;
+        if (mapped != null) {
+            return mapped;
+        }
+        if (null != super.doResolveException(request, new SendErrorToSetStatusHttpServletResponse(response), hm, ex)) {
+            if (request.getAttribute("javax.servlet.error.exception") != null && log.isWarnEnabled()) {
+                log.warn(String.format("got an internal error from spring at %s", requestUri), ex);
             }
-            final Problem failure = Problem.of("MESSAGE_NOT_READABLE", Problem.NO_CONTEXT, cause != null ? cause.getMessage() : ex.getMessage(), Problem.NO_DETAILS);
-            logger.debug(String.format("Unreadable message at %s: %s", requestUri, failure));
-            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, Arrays.asList(failure));
-        }
-        if (ex instanceof BindException) {
-            final BindException be = (BindException) ex;
-            final Stream<Problem> globalFailures = be.getGlobalErrors().stream().map(RestExceptionResolver::objectErrorToProblem);
-            final Stream<Problem> fieldFailures = be.getFieldErrors().stream().map(RestExceptionResolver::fieldErrorToProblem);
-            final List<Problem> failures = Stream.concat(globalFailures, fieldFailures).collect(Collectors.toList());
-            logger.debug(String.format("Binding failure at %s: %s", requestUri, failures));
-            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, failures);
-        }
-        if (ex instanceof MethodArgumentNotValidException) {
-            final MethodArgumentNotValidException manve = (MethodArgumentNotValidException) ex;
-            final Stream<Problem> globalFailures = manve.getBindingResult().getGlobalErrors().stream().map(RestExceptionResolver::objectErrorToProblem);
-            final Stream<Problem> fieldFailures = manve.getBindingResult().getFieldErrors().stream().map(RestExceptionResolver::fieldErrorToProblem);
-            final List<Problem> failures = Stream.concat(globalFailures, fieldFailures).collect(Collectors.toList());
-            logger.debug(String.format("Invalid method argument at %s: %s", requestUri, failures));
-            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, failures);
-        }
-        if (ex instanceof MethodArgumentTypeMismatchException) { // Handles type errors in path variables (Es. not-numeric string when expecting an int)
-            final MethodArgumentTypeMismatchException matme = (MethodArgumentTypeMismatchException) ex;
-            final String parameterName = matme.getParameter().getParameterName();
-            final String parameterType = matme.getParameter().getParameterType().toGenericString();
-            final Object value = matme.getValue();
-            final String sourceType = value == null ? "null" : value.getClass().toGenericString();
-            final List<Problem> failures = Collections.singletonList(Problem.of("CONVERSION_ERROR", parameterName, String.format("Failed to convert value of type '%s' to '%s'.", sourceType, parameterType), Problem.NO_DETAILS));
-            logger.debug(String.format("Conversion error for argument %s expected type %s found type %s at %s: %s", parameterName, parameterType, sourceType, requestUri, failures));
-            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, failures);
-        }
-        if (ex instanceof MissingServletRequestPartException) { // Handles missing multipart request part
-            final MissingServletRequestPartException msrpe = (MissingServletRequestPartException) ex;
-            final Problem problem = Problem.of("FIELD_ERROR", msrpe.getRequestPartName(), "Required request part is not present", Problem.NO_DETAILS);
-            logger.debug(String.format("Missing required part %s of multipart request: %s", msrpe.getRequestPartName(), requestUri));
-            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, Collections.singletonList(problem));
-        }
-        if (ex instanceof ResponseStatusException) {
-            final ResponseStatusException rse = (ResponseStatusException) ex;
-            final Problem problem = Problem.of(rse.getStatus().name(), rse.getReason());
-            return new HttpStatusAndFailures(rse.getStatus(), Collections.singletonList(problem));
-        }
-        final ResponseStatus responseStatus = AnnotationUtils.findAnnotation(ex.getClass(), ResponseStatus.class);
-        if (responseStatus != null) {
-            if (ex instanceof Failure) {
-                final Failure failure = (Failure) ex;
-                logger.debug(String.format("Failure at %s", requestUri), failure);
-                return new HttpStatusAndFailures(responseStatus.value(), failure.problems);
+            final HttpStatus currentStatus = HttpStatus.valueOf(response.getStatus());
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("got an unexpected error while processing request at %s", requestUri), ex);
             }
-            final String reason = responseStatus.reason().isEmpty() ? ex.getMessage() : responseStatus.reason();
-            final Problem problem = Problem.of("GENERIC_PROBLEM", null, reason, null);
-            logger.debug(String.format("Failure at %s: %s", requestUri, problem));
-            return new HttpStatusAndFailures(responseStatus.value(), Collections.singletonList(problem));
+            return new HttpStatusAndFailures(currentStatus, Collections.singletonList(Problem.of(ProblemTypes.INTERNAL_ERROR, null, ex.getMessage(), null)));
         }
-        if (ex instanceof Failure) {
-            final Failure failure = (Failure) ex;
-            logger.debug(String.format("Failure at %s", requestUri), failure);
-            return new HttpStatusAndFailures(HttpStatus.BAD_REQUEST, failure.problems);
+        if (log.isErrorEnabled()) {
+            log.error(String.format("got an unexpected error while processing request at %s", requestUri), ex);
+        }
+        return new HttpStatusAndFailures(HttpStatus.INTERNAL_SERVER_ERROR, Collections.singletonList(Problem.of(ProblemTypes.UNEXPECTED_PROBLEM, null, ex.getMessage(), null)));
+    }
+
+    private Log throttledLog(HttpServletRequest request, Exception ex) {
+        final LogThrottlingPolicy.Throttler throttler = logThrottler;
+        if (throttler == null) {
+            return logger;
         }
-        if (ex instanceof AccessDeniedException) {
-            final Problem problem = Problem.of("FORBIDDEN", null, ex.getMessage(), null);
-            logger.debug(String.format("Access denied at %s: %s", requestUri, problem));
-            return new HttpStatusAndFailures(HttpStatus.FORBIDDEN, Collections.singletonList(problem));
+        throttler.flushIfDue(this::logSuppressed);
+        final List<Problem> problems = ex instanceof Failure ? ((Failure) ex).problems : Collections.emptyList();
+        final LogThrottlingPolicy.Bucket bucket = problems.isEmpty() ? throttler.bucket(ex.getClass()) : throttler.bucket(ex.getClass(), problems.get(0).type);
+        if (!bucket.tryAcquire()) {
+            request.setAttribute(LOG_SUPPRESSED_ATTRIBUTE, Boolean.TRUE);
+            return SUPPRESSED_LOG;
         }
-        if (null != super.doResolveException(request, new SendErrorToSetStatusHttpServletResponse(response), hm, ex)) {
-            if (request.getAttribute("javax.servlet.error.exception") != null) {
-                logger.warn(String.format("got an internal error from spring at %s", requestUri), ex);
-            }
-            final HttpStatus currentStatus = HttpStatus.valueOf(response.getStatus());
-            logger.warn(String.format("got an unexpected error while processing request at %s", requestUri), ex);
-            return new HttpStatusAndFailures(currentStatus, Collections.singletonList(Problem.of("INTERNAL_ERROR", null, ex.getMessage(), null)));
+        final long suppressed = bucket.drainSuppressed();
+        if (suppressed != 0) {
+            logSuppressed(bucket.name, suppressed);
+        }
+        return logger;
+    }
+
+    private void logSuppressed(String bucket, long suppressed) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(String.format("suppressed logging of %d resolutions of %s", suppressed, bucket));
+        }
+    }
+
+    /**
+     * Reports the resolutions whose logging was suppressed by the log
+     * throttling policy and not reported yet, e.g. from a scheduled task.
+     */
+    public void flushSuppressedLogs() {
+        final LogThrottlingPolicy.Throttler throttler = logThrottler;
+        if (throttler != null) {
+            throttler.flush(this::logSuppressed);
         }
-        logger.error(String.format("got an unexpected error while processing request at %s", requestUri), ex);
-        return new HttpStatusAndFailures(HttpStatus.INTERNAL_SERVER_ERROR, Collections.singletonList(Problem.of("UNEXPECTED_PROBLEM", null, ex.getMessage(), null)));
     }
 
+    @Override
+    protected void logException(Exception ex, HttpServletRequest request) {
+        if (request.getAttribute(LOG_SUPPRESSED_ATTRIBUTE) == null) {
+            super.logException(ex, request);
+        }
+    }
+
+    /**
+     * Applies to handler methods annotated with {@link ResponseBody} (or
+     * declared in a class annotated with it) and to other handlers matching
+     * the handler predicate. Classification is cached per bean type and per
+     * {@link Method}, the latter up to a fixed number of methods.
+     */
     @Override
     protected boolean shouldApplyTo(HttpServletRequest request, Object handler) {
-        return super.shouldApplyTo(request, handler) && (handler == null || methodToIsRest.computeIfAbsent((HandlerMethod) handler, m -> {
-            return m.hasMethodAnnotation(ResponseBody.class) || AnnotatedElementUtils.hasAnnotation(m.getBeanType(), ResponseBody.class);
-        }));
+        if (!super.shouldApplyTo(request, handler)) {
+            return false;
+        }
+        if (handler == null) {
+            return true;
+        }
+        if (handler instanceof HandlerMethod) {
+            return isRest((HandlerMethod) handler);
+        }
+        return handlerPredicate.test(handler);
+    }
+
+    private boolean isRest(HandlerMethod hm) {
+        if (beanTypeToIsRest.get(hm.getBeanType())) {
+            return true;
+        }
+        final Method method = hm.getMethod();
+        final Boolean cached = methodToIsRest.get(method);
+        if (cached != null) {
+            return cached;
+        }
+        final boolean isRest = hm.hasMethodAnnotation(ResponseBody.class);
+        if (methodToIsRest.size() < MAX_CLASSIFIED_METHODS) {
+            methodToIsRest.put(method, isRest);
+        }
+        return isRest;
+    }
+
+    /**
+     * Configures which handlers other than {@link HandlerMethod}s this
+     * resolver applies to. Defaults to functional endpoints
+     * ({@link HandlerFunction}s).
+     *
+     * @param handlerPredicate the predicate
+     */
+    public void setHandlerPredicate(Predicate<Object> handlerPredicate) {
+        this.handlerPredicate = handlerPredicate;
     }
 
     @Override
     protected ModelAndView doResolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
-        final HandlerMethod hm = (HandlerMethod) handler;
-        final HttpStatusAndFailures statusAndErrors = toStatusAndErrors(request, response, hm, ex);
+        final HandlerMethod hm = handler instanceof HandlerMethod ? (HandlerMethod) handler : null;
+        final boolean instrumented = metrics != ProblemsMetrics.NONE;
+        final long resolutionStart = instrumented ? System.nanoTime() : 0;
+        final Exception unwrapped = unwrap(ex);
+        final HttpStatusAndFailures mapped = toStatusAndErrors(request, response, hm, unwrapped);
+        final ProblemsPostProcessor.Processed statusAndErrors = postProcessor.process(mapped, request.getLocale());
+        if (instrumented) {
+            metrics.resolved(unwrapped.getClass(), statusAndErrors.status, statusAndErrors.failures, System.nanoTime() - resolutionStart);
+        }
         response.setStatus(statusAndErrors.status.value());
+        statusAndErrors.headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        final Map.Entry<MediaType, Supplier<View>> mediaTypeAndViewFactory = negotiateViewFactory(request);
+        final MediaType mediaType = mediaTypeAndViewFactory.getKey();
+        final Supplier<View> viewFactory = mediaTypeAndViewFactory.getValue();
+        final long serializationStart = instrumented ? System.nanoTime() : 0;
+        if (writeDirectly && viewFactory instanceof ProblemsWriter) {
+            final ProblemsWriter writer = (ProblemsWriter) viewFactory;
+            try {
+                if (responseCache != null && ProblemsResponseCache.isCacheable(statusAndErrors.failures)) {
+                    responseCache.write(mediaType, statusAndErrors.failures, response, r -> writeProblems(writer, statusAndErrors.failures, r));
+                } else {
+                    writeProblems(writer, statusAndErrors.failures, response);
+                }
+                if (instrumented) {
+                    metrics.serialized(mediaType, System.nanoTime() - serializationStart);
+                }
+                return new ModelAndView();
+            } catch (Exception writingException) {
+                logger.warn(String.format("could not write problems at %s", request.getRequestURI()), writingException);
+                if (!response.isCommitted()) {
+                    // content type and cache headers are already set: the
+                    // partial output is dropped rather than rendered over
+                    response.resetBuffer();
+                }
+                return new ModelAndView();
+            }
+        }
+        final View view = viewFactory.get();
+        if (responseCache != null && ProblemsResponseCache.isCacheable(statusAndErrors.failures)) {
+            try {
+                final Map<String, Object> model = Collections.singletonMap("errors", statusAndErrors.failures);
+                responseCache.write(mediaType, statusAndErrors.failures, response, r -> view.render(model, request, r));
+                if (instrumented) {
+                    metrics.serialized(mediaType, System.nanoTime() - serializationStart);
+                }
+                return new ModelAndView();
+            } catch (Exception renderingException) {
+                logger.warn(String.format("could not write cached response at %s", request.getRequestURI()), renderingException);
+            }
+        }
+        return new ModelAndView(instrumented ? new TimedView(view, mediaType, metrics) : view, "errors", statusAndErrors.failures);
+    }
+
+    private static void writeProblems(ProblemsWriter writer, List<Problem> problems, HttpServletResponse response) throws IOException {
+        response.setContentType(writer.getContentType());
+        response.addHeader("Cache-Control", "no-store");
+        writer.write(problems, response.getOutputStream());
+        response.flushBuffer();
+    }
+
+    private Map.Entry<MediaType, Supplier<View>> negotiateViewFactory(HttpServletRequest request) {
+        if (!acceptOnlyNegotiation) {
+            return resolveViewFactory(request);
+        }
+        final Enumeration<String> accepts = request.getHeaders(HttpHeaders.ACCEPT);
+        final String accept = accepts != null && accepts.hasMoreElements() ? accepts.nextElement() : "";
+        if (accepts != null && accepts.hasMoreElements()) {
+            return resolveViewFactory(request);
+        }
+        final Map.Entry<MediaType, Supplier<View>> cached = acceptToViewFactory.get(accept);
+        if (cached != null) {
+            return cached;
+        }
+        final Map.Entry<MediaType, Supplier<View>> resolved = resolveViewFactory(request);
+        if (acceptToViewFactory.size() >= MAX_MEMOIZED_ACCEPT_HEADERS) {
+            // a burst of unusual headers must not evict the common ones for good
+            acceptToViewFactory.clear();
+        }
+        acceptToViewFactory.put(accept, resolved);
+        return resolved;
+    }
 
+    private Map.Entry<MediaType, Supplier<View>> resolveViewFactory(HttpServletRequest request) {
         try {
             final List<MediaType> mts = cn.resolveMediaTypes(new ServletWebRequest(request));
-
             for (MediaType mt : mts) {
                 for (Map.Entry<MediaType, Supplier<View>> mediaTypeAndViewFactory : mediaTypeToViewFactory.entrySet()) {
-                    final MediaType mediaType = mediaTypeAndViewFactory.getKey();
-                    final Supplier<View> viewFactory = mediaTypeAndViewFactory.getValue();
-                    if (mt.isCompatibleWith(mediaType)) {
-                        return new ModelAndView(viewFactory.get(), "errors", statusAndErrors.failures);
+                    if (mt.isCompatibleWith(mediaTypeAndViewFactory.getKey())) {
+                        return mediaTypeAndViewFactory;
                     }
                 }
             }
-            final Supplier<View> firstSupplier = mediaTypeToViewFactory.values().iterator().next();
-            return new ModelAndView(firstSupplier.get(), "errors", statusAndErrors.failures);
-        } catch (HttpMediaTypeNotAcceptableException ex1) {
-            final Supplier<View> firstSupplier = mediaTypeToViewFactory.values().iterator().next();
-            return new ModelAndView(firstSupplier.get(), "errors", statusAndErrors.failures);
+        } catch (HttpMediaTypeNotAcceptableException ex) {
+            // falls back to the first registered view factory
         }
+        return mediaTypeToViewFactory.entrySet().iterator().next();
+    }
+
+    /**
+     * Registers a mapper for the given exception type, taking precedence over
+     * the built-in mappers.
+     *
+     * @param <T> the exception type
+     * @param type the exception type
+     * @param mapper the mapper
+     */
+    public <T extends Throwable> void registerExceptionMapper(Class<T> type, ExceptionMapper<? super T> mapper) {
+        exceptionMappers.register(type, mapper);
+    }
+
+    /**
+     * Enables caching of serialized responses. Cached responses are written
+     * directly to the response and an empty {@link ModelAndView} is returned.
+     *
+     * @param responseCache the cache to be used, null to disable caching
+     */
+    public void setResponseCache(ProblemsResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Configures the processing of the mapped problems, e.g. status policy,
+     * compaction and localization.
+     *
+     * @param postProcessor the post processor
+     */
+    public void setPostProcessor(ProblemsPostProcessor postProcessor) {
+        this.postProcessor = postProcessor;
+    }
+
+    /**
+     * Throttles logging of resolved exceptions, per exception class or, for
+     * failures, per problem type.
+     *
+     * @param policy the throttling policy, null to log every resolution
+     */
+    public void setLogThrottling(LogThrottlingPolicy policy) {
+        this.logThrottler = policy == null ? null : policy.newThrottler();
+    }
+
+    /**
+     * Configures the instrumentation hook.
+     *
+     * @param metrics the metrics to be notified, {@link ProblemsMetrics#NONE}
+     * to disable instrumentation
+     */
+    public void setMetrics(ProblemsMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * When enabled, problems are serialized straight to the response output
+     * stream by view factories implementing {@link ProblemsWriter}, the
+     * response is committed and an empty {@link ModelAndView} is returned.
+     * View factories not implementing {@link ProblemsWriter} are rendered
+     * through their views.
+     *
+     * @param writeDirectly whether to bypass the view machinery
+     */
+    public void setWriteDirectly(boolean writeDirectly) {
+        this.writeDirectly = writeDirectly;
     }
 
     public static class HttpStatusAndFailures {
@@ -219,12 +382,32 @@ public class RestExceptionResolver extends DefaultHandlerExceptionResolver {
 
     }
 
-    private static Problem fieldErrorToProblem(FieldError error) {
-        return Problem.of("FIELD_ERROR", error.getField(), error.getDefaultMessage(), null);
-    }
+    /**
+     * Times the rendering of the wrapped view.
+     */
+    private static class TimedView implements View {
+
+        private final View inner;
+        private final MediaType mediaType;
+        private final ProblemsMetrics metrics;
+
+        public TimedView(View inner, MediaType mediaType, ProblemsMetrics metrics) {
+            this.inner = inner;
+            this.mediaType = mediaType;
+            this.metrics = metrics;
+        }
 
-    private static Problem objectErrorToProblem(ObjectError error) {
-        return Problem.of("OBJECT_ERROR", null, error.getDefaultMessage(), null);
+        @Override
+        public String getContentType() {
+            return inner.getContentType();
+        }
+
+        @Override
+        public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+            final long start = System.nanoTime();
+            inner.render(model, request, response);
+            metrics.serialized(mediaType, System.nanoTime() - start);
+        }
     }
 
     public static class SendErrorToSetStatusHttpServletResponse extends HttpServletResponseWrapper {
@@ -0,0 +1,77 @@
+package net.optionfactory.problems.web;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonLocation;
+
+/**
+ * The details of an UNPARSEABLE_MESSAGE problem: where parsing failed. Only
+ * the position is retained, not the source the location refers to.
+ */
+public final class UnparseableMessageDetails {
+
+    public final Location location;
+
+    private UnparseableMessageDetails(Location location) {
+        this.location = location;
+    }
+
+    public static UnparseableMessageDetails of(JsonLocation location) {
+        return new UnparseableMessageDetails(location == null ? null : new Location(location.getLineNr(), location.getColumnNr(), location.getCharOffset(), location.getByteOffset()));
+    }
+
+    @Override
+    public int hashCode() {
+        return location == null ? 0 : location.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof UnparseableMessageDetails)) {
+            return false;
+        }
+        final UnparseableMessageDetails other = (UnparseableMessageDetails) obj;
+        return location == null ? other.location == null : location.equals(other.location);
+    }
+
+    @Override
+    public String toString() {
+        return "location " + location;
+    }
+
+    @JsonPropertyOrder({"lineNr", "columnNr", "charOffset", "byteOffset"})
+    public static final class Location {
+
+        public final int lineNr;
+        public final int columnNr;
+        public final long charOffset;
+        public final long byteOffset;
+
+        public Location(int lineNr, int columnNr, long charOffset, long byteOffset) {
+            this.lineNr = lineNr;
+            this.columnNr = columnNr;
+            this.charOffset = charOffset;
+            this.byteOffset = byteOffset;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 31 * lineNr + columnNr;
+            hash = 31 * hash + Long.hashCode(charOffset);
+            return 31 * hash + Long.hashCode(byteOffset);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Location)) {
+                return false;
+            }
+            final Location other = (Location) obj;
+            return lineNr == other.lineNr && columnNr == other.columnNr && charOffset == other.charOffset && byteOffset == other.byteOffset;
+        }
+
+        @Override
+        public String toString() {
+            return lineNr + ":" + columnNr;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package net.optionfactory.problems.web;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The details of an UNRECOGNIZED_PROPERTY problem: the properties known in
+ * the referring class and its simple name. Instances are immutable and
+ * cached per referring class, so that a flood of malformed requests against
+ * the same DTO reuses the same details.
+ */
+@JsonPropertyOrder({"known", "in"})
+public final class UnrecognizedPropertyDetails {
+
+    private static final ClassValue<Slot> CACHE = new ClassValue<Slot>() {
+        @Override
+        protected Slot computeValue(Class<?> type) {
+            return new Slot();
+        }
+    };
+
+    public final List<String> known;
+    public final String in;
+
+    private UnrecognizedPropertyDetails(List<String> known, String in) {
+        this.known = known;
+        this.in = in;
+    }
+
+    /**
+     * Returns the details cached for the referring class when its known
+     * properties are unchanged, new ones otherwise.
+     *
+     * @param referringClass the class the property was not recognized in
+     * @param knownPropertyIds the known properties
+     * @return the details
+     */
+    public static UnrecognizedPropertyDetails of(Class<?> referringClass, Collection<Object> knownPropertyIds) {
+        if (referringClass == null) {
+            return create(null, knownPropertyIds);
+        }
+        final Slot slot = CACHE.get(referringClass);
+        final UnrecognizedPropertyDetails cached = slot.details;
+        if (cached != null && sameElements(cached.known, knownPropertyIds)) {
+            return cached;
+        }
+        final UnrecognizedPropertyDetails created = create(referringClass, knownPropertyIds);
+        slot.details = created;
+        return created;
+    }
+
+    private static UnrecognizedPropertyDetails create(Class<?> referringClass, Collection<Object> knownPropertyIds) {
+        final List<String> known = new ArrayList<>(knownPropertyIds == null ? 0 : knownPropertyIds.size());
+        if (knownPropertyIds != null) {
+            for (Object id : knownPropertyIds) {
+                known.add(String.valueOf(id));
+            }
+        }
+        return new UnrecognizedPropertyDetails(Collections.unmodifiableList(known), referringClass == null ? null : referringClass.getSimpleName());
+    }
+
+    private static boolean sameElements(List<String> known, Collection<Object> knownPropertyIds) {
+        if (knownPropertyIds == null || known.size() != knownPropertyIds.size()) {
+            return false;
+        }
+        final Iterator<Object> ids = knownPropertyIds.iterator();
+        for (String k : known) {
+            if (!k.equals(String.valueOf(ids.next()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * known.hashCode() + Objects.hashCode(in);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof UnrecognizedPropertyDetails)) {
+            return false;
+        }
+        final UnrecognizedPropertyDetails other = (UnrecognizedPropertyDetails) obj;
+        return known.equals(other.known) && Objects.equals(in, other.in);
+    }
+
+    @Override
+    public String toString() {
+        return "known " + known + " in " + in;
+    }
+
+    private static class Slot {
+
+        private volatile UnrecognizedPropertyDetails details;
+    }
+}
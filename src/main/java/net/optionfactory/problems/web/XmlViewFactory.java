@@ -1,24 +1,40 @@
 package net.optionfactory.problems.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 import java.util.function.Supplier;
+import net.optionfactory.problems.Problem;
 import org.springframework.web.servlet.View;
 import org.springframework.web.servlet.view.xml.MappingJackson2XmlView;
 
-public class XmlViewFactory implements Supplier<View> {
+public class XmlViewFactory implements Supplier<View>, ProblemsWriter {
 
-    private final ObjectMapper mapper;
+    private static final String CONTENT_TYPE = "application/xml;charset=UTF-8";
+    private final JacksonProblemsWriter writer;
+    private final MappingJackson2XmlView view;
 
     public XmlViewFactory(ObjectMapper mapper) {
-        this.mapper = mapper;
+        this.writer = JacksonProblemsWriter.xml(mapper);
+        this.view = new MappingJackson2XmlView();
+        this.view.setObjectMapper(mapper);
+        this.view.setContentType(CONTENT_TYPE);
     }
 
     @Override
     public View get() {
-        final MappingJackson2XmlView view = new MappingJackson2XmlView();
-        view.setObjectMapper(mapper);
-        view.setContentType("application/xml;charset=UTF-8");
         return view;
     }
 
+    @Override
+    public String getContentType() {
+        return writer.getContentType();
+    }
+
+    @Override
+    public void write(List<Problem> problems, OutputStream os) throws IOException {
+        writer.write(problems, os);
+    }
+
 }
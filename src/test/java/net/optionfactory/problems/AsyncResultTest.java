@@ -0,0 +1,52 @@
+package net.optionfactory.problems;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncResultTest {
+
+    @Test
+    public void zipAccumulatesProblemsOfBothSides() {
+        final Problem a = Problem.of("FIELD_ERROR", "a", "invalid", null);
+        final Problem b = Problem.of("FIELD_ERROR", "b", "invalid", null);
+
+        final Result<String> got = AsyncResult.<Integer>error(a).zip(AsyncResult.<Integer>error(b), (l, r) -> "" + l + r).toResult().join();
+
+        Assert.assertEquals(Arrays.asList(a, b), got.getErrors());
+    }
+
+    @Test
+    public void flatMapChainsValues() {
+        final Result<Integer> got = AsyncResult.value(1)
+                .flatMap(v -> AsyncResult.supplyAsync(() -> Result.value(v + 1), Runnable::run))
+                .map(v -> v * 10)
+                .toResult()
+                .join();
+
+        Assert.assertEquals(Integer.valueOf(20), got.getValue());
+    }
+
+    @Test
+    public void failuresOfValueFuturesBecomeProblems() {
+        final Problem problem = Problem.of("FIELD_ERROR", "a", "invalid", null);
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        future.completeExceptionally(new Failure(problem));
+
+        final Result<Integer> got = AsyncResult.fromFuture(future).toResult().join();
+
+        Assert.assertEquals(Arrays.asList(problem), got.getErrors());
+    }
+
+    @Test
+    public void erroredResultsCompleteFuturesWithFailure() throws InterruptedException {
+        try {
+            AsyncResult.error(Problem.of("FIELD_ERROR", "invalid")).toFuture().get();
+            Assert.fail("expected a failure");
+        } catch (ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof Failure);
+        }
+    }
+}
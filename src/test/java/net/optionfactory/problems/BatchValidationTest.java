@@ -0,0 +1,130 @@
+package net.optionfactory.problems;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchValidationTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void problemContextsArePrefixedWithTheItemIndexInItemOrder() {
+        final List<Problem> got = BatchValidation.<Integer>of(BatchValidationTest::evenIsInvalid)
+                .on(executor)
+                .chunkSize(3)
+                .problems(range(10));
+
+        Assert.assertEquals(Arrays.asList("items[0].value", "items[2].value", "items[4].value", "items[6].value", "items[8].value"), contexts(got));
+    }
+
+    @Test
+    public void validationStopsAtTheProblemLimit() {
+        final AtomicInteger validated = new AtomicInteger();
+        final List<Problem> got = BatchValidation.<Integer>of(value -> {
+            validated.incrementAndGet();
+            return evenIsInvalid(value);
+        })
+                .limit(2)
+                .problems(range(10));
+
+        Assert.assertEquals(Arrays.asList("items[0].value", "items[2].value", null), contexts(got));
+        Assert.assertEquals(ProblemTypes.truncated(1), got.get(2));
+        Assert.assertEquals(5, validated.get());
+    }
+
+    @Test
+    public void earlierChunksAreNotStoppedByProblemsInLaterChunks() {
+        final List<Runnable> deferred = new ArrayList<>();
+        final Executor lastChunkFirst = task -> {
+            if (deferred.isEmpty()) {
+                deferred.add(task);
+                return;
+            }
+            task.run();
+            deferred.get(0).run();
+        };
+        final AtomicInteger validated = new AtomicInteger();
+        final List<Problem> got = BatchValidation.<Integer>of(value -> {
+            validated.incrementAndGet();
+            return evenIsInvalid(value);
+        })
+                .on(lastChunkFirst)
+                .chunkSize(2)
+                .limit(1)
+                .problems(range(4));
+
+        Assert.assertEquals(Arrays.asList("items[0].value", null), contexts(got));
+        Assert.assertEquals(ProblemTypes.truncated(1), got.get(1));
+        Assert.assertEquals(4, validated.get());
+    }
+
+    @Test
+    public void chunksAfterTheLimitAreStopped() {
+        final AtomicInteger validated = new AtomicInteger();
+        final List<Problem> got = BatchValidation.<Integer>of(value -> {
+            validated.incrementAndGet();
+            return evenIsInvalid(value);
+        })
+                .on(Runnable::run)
+                .chunkSize(2)
+                .limit(1)
+                .problems(range(10));
+
+        Assert.assertEquals(Arrays.asList("items[0].value", null), contexts(got));
+        Assert.assertEquals(3, validated.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void limitBelowOneIsRejected() {
+        BatchValidation.<Integer>of(BatchValidationTest::evenIsInvalid).limit(0);
+    }
+
+    @Test
+    public void resultsAreReportedPerItem() {
+        final List<Result<Integer>> got = BatchValidation.<Integer>of(BatchValidationTest::evenIsInvalid)
+                .on(executor)
+                .chunkSize(2)
+                .results(range(5));
+
+        Assert.assertEquals(5, got.size());
+        Assert.assertTrue(got.get(0).isError());
+        Assert.assertEquals(Integer.valueOf(3), got.get(3).getValue());
+    }
+
+    private static List<Problem> evenIsInvalid(Integer value) {
+        if (value % 2 == 0) {
+            throw new Failure(Problem.of("FIELD_ERROR", "value", "even", null));
+        }
+        return Collections.emptyList();
+    }
+
+    private static List<Integer> range(int size) {
+        final List<Integer> values = new ArrayList<>(size);
+        for (int i = 0; i != size; ++i) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    private static List<String> contexts(List<Problem> problems) {
+        final List<String> contexts = new ArrayList<>();
+        for (Problem problem : problems) {
+            contexts.add(problem.context);
+        }
+        return contexts;
+    }
+}
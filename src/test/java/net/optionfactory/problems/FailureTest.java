@@ -0,0 +1,38 @@
+package net.optionfactory.problems;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FailureTest {
+
+    private final List<Problem> problems = Arrays.asList(Problem.of("FIELD_ERROR", "email", "invalid", null));
+
+    @Test
+    public void stacklessFailuresHaveNoStackTrace() {
+        Assert.assertEquals(0, Failure.stackless(problems).getStackTrace().length);
+        Assert.assertEquals(0, Failure.stackless(problems, "reason").getStackTrace().length);
+        Assert.assertNotEquals(0, new Failure(problems).getStackTrace().length);
+    }
+
+    @Test
+    public void messagesAreUnchanged() {
+        Assert.assertEquals("problems:[FIELD_ERROR@email: invalid (null)]", new Failure(problems).getMessage());
+        Assert.assertEquals("problems (reason):[FIELD_ERROR@email: invalid (null)]", new Failure(problems, "reason").getMessage());
+        Assert.assertEquals("problems (reason):[FIELD_ERROR@email: invalid (null)]", Failure.stackless(problems, "reason").getMessage());
+        Assert.assertEquals("problems:[FIELD_ERROR@email: invalid (null)]", new Failure(problems.get(0), new IllegalStateException()).getMessage());
+    }
+
+    @Test
+    public void enforceStacklessIgnoresEmptyLists() {
+        Failure.enforceStackless(Collections.emptyList());
+        Failure.enforceStackless(Collections.emptyList(), "reason");
+    }
+
+    @Test(expected = Failure.class)
+    public void enforceStacklessThrowsOnProblems() {
+        Failure.enforceStackless(problems);
+    }
+}
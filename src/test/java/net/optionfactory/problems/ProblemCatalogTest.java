@@ -0,0 +1,49 @@
+package net.optionfactory.problems;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProblemCatalogTest {
+
+    private final ProblemCatalog catalog = ProblemCatalog.of(Locale.ENGLISH)
+            .reason("QUANTITY_EXCEEDED", "at most {0} items")
+            .reason("QUANTITY_EXCEEDED", Locale.ITALIAN, "al massimo {0} articoli")
+            .reason("OUT_OF_STOCK", "out of stock");
+
+    @Test
+    public void reasonsAreRenderedInTheRequestedLocale() {
+        final List<Problem> problems = Arrays.asList(catalog.problem("QUANTITY_EXCEEDED", "items", 10), Problem.of("FIELD_ERROR", "name", "required", null));
+
+        final List<Problem> got = catalog.localize(problems, Locale.ITALY);
+
+        Assert.assertEquals(Arrays.asList(Problem.of("QUANTITY_EXCEEDED", "items", "al massimo 10 articoli", null), problems.get(1)), got);
+    }
+
+    @Test
+    public void unknownLocalesFallBackToTheDefaultLocale() {
+        final List<Problem> got = catalog.localize(Collections.singletonList(catalog.problem("OUT_OF_STOCK", "items")), Locale.GERMAN);
+
+        Assert.assertEquals("out of stock", got.get(0).reason);
+    }
+
+    @Test
+    public void problemsWithoutArgumentsAreReturnedAsTheyAre() throws Exception {
+        final List<Problem> problems = Collections.singletonList(Problem.of("FIELD_ERROR", "name", "required", null));
+
+        Assert.assertSame(problems, catalog.localize(problems, Locale.ITALIAN));
+    }
+
+    @Test
+    public void reasonsAreRenderedInTheDefaultLocaleWhenNotLocalized() throws Exception {
+        final Problem problem = catalog.problem("QUANTITY_EXCEEDED", null, 1);
+
+        Assert.assertEquals("at most 1 items", problem.reason);
+        Assert.assertEquals("{\"type\":\"QUANTITY_EXCEEDED\",\"context\":null,\"reason\":\"at most 1 items\",\"details\":null}", new ObjectMapper().writeValueAsString(problem));
+        Assert.assertEquals("problems:[QUANTITY_EXCEEDED@null: at most 1 items (null)]", new Failure(problem).getMessage());
+    }
+}
@@ -0,0 +1,78 @@
+package net.optionfactory.problems;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProblemCompactorTest {
+
+    @Test
+    public void duplicatesAreDropped() {
+        final Problem a = Problem.of("FIELD_ERROR", "a", "invalid", null);
+        final Problem b = Problem.of("FIELD_ERROR", "b", "invalid", null);
+
+        final List<Problem> got = ProblemCompactor.deduplicating().compact(Arrays.asList(a, b, Problem.of("FIELD_ERROR", "a", "invalid", null)));
+
+        Assert.assertEquals(Arrays.asList(a, b), got);
+    }
+
+    @Test
+    public void problemsSharingTypeAndReasonAreGrouped() {
+        final List<Problem> got = ProblemCompactor.deduplicating().grouping().compact(Arrays.asList(
+                Problem.of("FIELD_ERROR", "a", "invalid", null),
+                Problem.of("FIELD_ERROR", "b", "invalid", null),
+                Problem.of("FIELD_ERROR", "a", "invalid", null),
+                Problem.of("FIELD_ERROR", "c", "missing", null)
+        ));
+
+        Assert.assertEquals(Arrays.asList(
+                Problem.of("FIELD_ERROR", null, "invalid", Collections.singletonMap("contexts", Arrays.asList("a", "b"))),
+                Problem.of("FIELD_ERROR", "c", "missing", null)
+        ), got);
+    }
+
+    @Test
+    public void outputIsCappedWithATruncationMarker() {
+        final List<Problem> got = IntStream.range(0, 10)
+                .mapToObj(i -> Problem.of("FIELD_ERROR", "items[" + i + "]", "invalid", null))
+                .collect(ProblemCompactor.deduplicating().limit(3).collector());
+
+        Assert.assertEquals(4, got.size());
+        Assert.assertEquals("TRUNCATED", got.get(3).type);
+        Assert.assertEquals(Collections.singletonMap("omitted", 7L), got.get(3).details);
+        Assert.assertEquals(Arrays.asList("items[0]", "items[1]", "items[2]"), got.subList(0, 3).stream().map(p -> p.context).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void groupContextsAreCappedWithATruncationMarker() {
+        final List<Problem> got = ProblemCompactor.deduplicating().grouping().limit(3).compact(IntStream.range(0, 10)
+                .mapToObj(i -> Problem.of("FIELD_ERROR", "items[" + i + "]", "invalid", null))
+                .collect(Collectors.toList()));
+
+        Assert.assertEquals(Arrays.asList(
+                Problem.of("FIELD_ERROR", null, "invalid", Collections.singletonMap("contexts", Arrays.asList("items[0]", "items[1]", "items[2]"))),
+                Problem.of("TRUNCATED", null, "7 more problems omitted", Collections.singletonMap("omitted", 7L))
+        ), got);
+    }
+
+    @Test
+    public void groupedContextsShareTheProblemBudget() {
+        final List<Problem> got = ProblemCompactor.deduplicating().grouping().limit(3).compact(Arrays.asList(
+                Problem.of("FIELD_ERROR", "a", "invalid", null),
+                Problem.of("FIELD_ERROR", "b", "invalid", null),
+                Problem.of("OBJECT_ERROR", "c", "missing", null),
+                Problem.of("OBJECT_ERROR", "d", "missing", null),
+                Problem.of("FIELD_ERROR", "e", "invalid", null)
+        ));
+
+        Assert.assertEquals(Arrays.asList(
+                Problem.of("FIELD_ERROR", null, "invalid", Collections.singletonMap("contexts", Arrays.asList("a", "b"))),
+                Problem.of("OBJECT_ERROR", "c", "missing", null),
+                Problem.of("TRUNCATED", null, "2 more problems omitted", Collections.singletonMap("omitted", 2L))
+        ), got);
+    }
+}
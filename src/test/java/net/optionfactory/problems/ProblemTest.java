@@ -0,0 +1,29 @@
+package net.optionfactory.problems;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProblemTest {
+
+    @Test
+    public void problemsWithSameFieldsAreEqual() {
+        final Problem a = Problem.of("FIELD_ERROR", "email", "invalid", null);
+        final Problem b = Problem.of(new String("FIELD_ERROR"), "email", "invalid", null);
+
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertSame(a.type, b.type);
+    }
+
+    @Test
+    public void wireFormatIsRetained() throws Exception {
+        final ObjectMapper mapper = new ObjectMapper();
+        final Problem problem = Problem.of("FIELD_ERROR", "email", "invalid", 42);
+
+        final String json = mapper.writeValueAsString(problem);
+
+        Assert.assertEquals("{\"type\":\"FIELD_ERROR\",\"context\":\"email\",\"reason\":\"invalid\",\"details\":42}", json);
+        Assert.assertEquals(problem, mapper.readValue(json, Problem.class));
+    }
+}
@@ -0,0 +1,29 @@
+package net.optionfactory.problems;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResultTest {
+
+    @Test
+    public void mappingAnErroredResultYieldsTheSameResult() {
+        final Result<Integer> errored = Result.error(Problem.of("FIELD_ERROR", "invalid"));
+
+        Assert.assertSame(errored, errored.map(v -> v + 1));
+        Assert.assertSame(errored, errored.flatMap(v -> Result.value(v + 1)));
+    }
+
+    @Test
+    public void valuedResultsShareTheEmptyErrorList() {
+        Assert.assertSame(Result.value(1).getErrors(), Result.value(2).getErrors());
+    }
+
+    @Test
+    public void foldAppliesTheMatchingBranch() {
+        final Result<Integer> errored = Result.error(Problem.of("FIELD_ERROR", "invalid"));
+
+        Assert.assertEquals("1 problems", errored.fold(ps -> ps.size() + " problems", v -> "value " + v));
+        Assert.assertEquals("value 3", Result.value(3).fold(ps -> ps.size() + " problems", v -> "value " + v));
+        Assert.assertEquals(Integer.valueOf(0), errored.orElse(0));
+    }
+}
@@ -0,0 +1,79 @@
+package net.optionfactory.problems;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ValidationTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void collectAllAccumulatesProblemsInStepOrder() {
+        final Result<String> got = Validation.on(executor)
+                .check(() -> Collections.singletonList(Problem.of("FIELD_ERROR", "a", "first", null)))
+                .check(() -> Collections.emptyList())
+                .checkResult(() -> Result.error(Problem.of("FIELD_ERROR", "b", "second", null)))
+                .check(() -> {
+                    throw new Failure(Problem.of("FIELD_ERROR", "c", "third", null));
+                })
+                .validate(() -> "value");
+
+        Assert.assertTrue(got.isError());
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), contexts(got.getErrors()));
+    }
+
+    @Test
+    public void failFastDoesNotWaitForPendingSteps() {
+        final CountDownLatch never = new CountDownLatch(1);
+        final List<Problem> got = Validation.on(executor)
+                .failFast()
+                .check(() -> {
+                    try {
+                        never.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Collections.emptyList();
+                })
+                .check(() -> Collections.singletonList(Problem.of("FIELD_ERROR", "a", "fast", null)))
+                .problems();
+
+        Assert.assertEquals(Arrays.asList("a"), contexts(got));
+    }
+
+    @Test
+    public void valueIsSuppliedWhenNoProblemIsReported() {
+        final Result<String> got = Validation.on(executor)
+                .check(() -> Collections.emptyList())
+                .check(() -> null)
+                .validate(() -> "value");
+
+        Assert.assertEquals("value", got.getValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unexpectedExceptionsArePropagated() {
+        Validation.on(executor)
+                .check(() -> Collections.emptyList())
+                .check(() -> {
+                    throw new IllegalStateException();
+                })
+                .problems();
+    }
+
+    private static List<String> contexts(List<Problem> problems) {
+        return Arrays.asList(problems.stream().map(p -> p.context).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,73 @@
+package net.optionfactory.problems.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Supplier;
+import net.optionfactory.problems.Failure;
+import net.optionfactory.problems.Problem;
+import net.optionfactory.problems.web.CborViewFactory;
+import net.optionfactory.problems.web.JacksonProblemsWriter;
+import net.optionfactory.problems.web.JsonViewFactory;
+import net.optionfactory.problems.web.RestExceptionResolver;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
+
+public class ProblemsDecoderTest {
+
+    private final List<Problem> problems = Arrays.asList(
+            Problem.of("FIELD_ERROR", "email", "invalid email", null),
+            Problem.of("FORBIDDEN", null, "denied", "details")
+    );
+    private RestExceptionResolver er;
+
+    @Before
+    public void before() {
+        final LinkedHashMap<MediaType, Supplier<View>> suppliers = new LinkedHashMap<>();
+        suppliers.put(MediaType.APPLICATION_JSON, new JsonViewFactory(new ObjectMapper()));
+        suppliers.put(MediaType.APPLICATION_CBOR, new CborViewFactory(new CBORMapper()));
+        er = new RestExceptionResolver(new ContentNegotiationManager(), suppliers, RestExceptionResolver.LOWEST_PRECEDENCE + 1);
+    }
+
+    @Test
+    public void cborViewIsNegotiatedAndDecoded() throws Exception {
+        final MockHttpServletRequest req = new MockHttpServletRequest();
+        req.addHeader("Accept", "application/cbor");
+        final MockHttpServletResponse res = new MockHttpServletResponse();
+
+        final ModelAndView got = er.resolveException(req, res, null, new Failure(problems));
+        got.getView().render(got.getModel(), req, res);
+
+        Assert.assertEquals("application/cbor", res.getContentType());
+        final Failure decoded = new ProblemsDecoder(new CBORMapper()).decodeFailure(new ByteArrayInputStream(res.getContentAsByteArray()));
+        Assert.assertEquals(problems, decoded.problems);
+    }
+
+    @Test
+    public void cborWrittenDirectlyIsDecoded() throws Exception {
+        er.setWriteDirectly(true);
+        final MockHttpServletRequest req = new MockHttpServletRequest();
+        req.addHeader("Accept", "application/cbor");
+        final MockHttpServletResponse res = new MockHttpServletResponse();
+
+        er.resolveException(req, res, null, new Failure(problems));
+
+        final List<Problem> decoded = new ProblemsDecoder(new CBORMapper()).decode(new ByteArrayInputStream(res.getContentAsByteArray()));
+        Assert.assertEquals(problems, decoded);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cborWritersRejectNonCborMappers() {
+        JacksonProblemsWriter.cbor(new ObjectMapper());
+    }
+}
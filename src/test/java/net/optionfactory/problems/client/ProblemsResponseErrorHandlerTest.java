@@ -0,0 +1,56 @@
+package net.optionfactory.problems.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import net.optionfactory.problems.Problem;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+public class ProblemsResponseErrorHandlerTest {
+
+    private static final String BODY = "[{\"type\":\"FIELD_ERROR\",\"context\":\"email\",\"reason\":\"invalid email\",\"details\":null,\"extra\":{\"a\":[1]}}]";
+
+    @Test
+    public void problemsAreThrownAsFailure() throws Exception {
+        final ProblemsResponseErrorHandler handler = new ProblemsResponseErrorHandler(MediaType.APPLICATION_JSON, new ProblemsDecoder(new ObjectMapper()));
+        try {
+            handler.handleError(response(MediaType.APPLICATION_JSON));
+            Assert.fail("expected a Failure");
+        } catch (RemoteFailure failure) {
+            Assert.assertEquals(400, failure.getRawStatusCode());
+            Assert.assertEquals(Collections.singletonList(Problem.of("FIELD_ERROR", "email", "invalid email", null)), failure.problems);
+        }
+    }
+
+    @Test(expected = HttpClientErrorException.class)
+    public void emptyBodiesAreHandledAsByDefault() throws Exception {
+        final ProblemsResponseErrorHandler handler = new ProblemsResponseErrorHandler(MediaType.APPLICATION_JSON, new ProblemsDecoder(new ObjectMapper()));
+        final MockClientHttpResponse response = new MockClientHttpResponse(new byte[0], HttpStatus.BAD_REQUEST);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        handler.handleError(response);
+    }
+
+    @Test(expected = HttpClientErrorException.class)
+    public void otherContentTypesAreHandledAsByDefault() throws Exception {
+        final ProblemsResponseErrorHandler handler = new ProblemsResponseErrorHandler(MediaType.APPLICATION_JSON, new ProblemsDecoder(new ObjectMapper()));
+        handler.handleError(response(MediaType.TEXT_HTML));
+    }
+
+    @Test(expected = RestClientException.class)
+    public void bodiesExceedingTheLimitAreRejected() throws Exception {
+        final ProblemsResponseErrorHandler handler = new ProblemsResponseErrorHandler(MediaType.APPLICATION_JSON, new ProblemsDecoder(new ObjectMapper(), 16));
+        handler.handleError(response(MediaType.APPLICATION_JSON));
+    }
+
+    private static MockClientHttpResponse response(MediaType contentType) {
+        final MockClientHttpResponse response = new MockClientHttpResponse(BODY.getBytes(StandardCharsets.UTF_8), HttpStatus.BAD_REQUEST);
+        response.getHeaders().setContentType(contentType);
+        return response;
+    }
+}
@@ -0,0 +1,74 @@
+package net.optionfactory.problems.web;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import net.optionfactory.problems.Failure;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LogThrottlingPolicyTest {
+
+    @Test
+    public void resolutionsOverTheLimitAreSuppressedAndCounted() {
+        final LogThrottlingPolicy.Bucket bucket = LogThrottlingPolicy.perInterval(2, Duration.ofHours(1)).newBucket(IllegalStateException.class);
+
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+        Assert.assertEquals(2, bucket.drainSuppressed());
+        Assert.assertEquals(0, bucket.drainSuppressed());
+    }
+
+    @Test
+    public void overridesApplyToSubclasses() {
+        final LogThrottlingPolicy policy = LogThrottlingPolicy.perInterval(5, Duration.ofHours(1)).limit(RuntimeException.class, 0);
+        final LogThrottlingPolicy.Bucket bucket = policy.newBucket(IllegalStateException.class);
+
+        Assert.assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void resolutionsOverTheLimitCanBeSampled() {
+        final LogThrottlingPolicy.Bucket bucket = LogThrottlingPolicy.perInterval(0, Duration.ofHours(1)).sampleEvery(3).newBucket(IllegalStateException.class);
+
+        Assert.assertFalse(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+        Assert.assertTrue(bucket.tryAcquire());
+    }
+
+    @Test
+    public void windowIsResetAfterTheInterval() throws InterruptedException {
+        final LogThrottlingPolicy.Bucket bucket = LogThrottlingPolicy.perInterval(1, Duration.ofMillis(1)).newBucket(IllegalStateException.class);
+
+        Assert.assertTrue(bucket.tryAcquire());
+        Thread.sleep(5);
+        Assert.assertTrue(bucket.tryAcquire());
+    }
+
+    @Test
+    public void suppressedCountsAreFlushedWhenTheIntervalRollsOver() throws InterruptedException {
+        final LogThrottlingPolicy.Throttler throttler = LogThrottlingPolicy.perInterval(0, Duration.ofMillis(1)).newThrottler();
+        throttler.bucket(IllegalStateException.class).tryAcquire();
+        throttler.bucket(IllegalStateException.class).tryAcquire();
+        final Map<String, Long> got = new HashMap<>();
+
+        Thread.sleep(5);
+        throttler.flushIfDue(got::put);
+
+        Assert.assertEquals(Collections.singletonMap(IllegalStateException.class.getName(), 2L), got);
+    }
+
+    @Test
+    public void failuresAreThrottledPerProblemType() {
+        final LogThrottlingPolicy.Throttler throttler = LogThrottlingPolicy.perInterval(1, Duration.ofHours(1)).limit("QUOTA_EXCEEDED", 0).newThrottler();
+
+        Assert.assertTrue(throttler.bucket(Failure.class, "FIELD_ERROR").tryAcquire());
+        Assert.assertFalse(throttler.bucket(Failure.class, "FIELD_ERROR").tryAcquire());
+        Assert.assertTrue(throttler.bucket(Failure.class, "FORBIDDEN").tryAcquire());
+        Assert.assertFalse(throttler.bucket(Failure.class, "QUOTA_EXCEEDED").tryAcquire());
+        Assert.assertTrue(throttler.bucket(Failure.class).tryAcquire());
+    }
+}
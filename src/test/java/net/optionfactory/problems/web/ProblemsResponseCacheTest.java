@@ -0,0 +1,77 @@
+package net.optionfactory.problems.web;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.WriteListener;
+import net.optionfactory.problems.Problem;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class ProblemsResponseCacheTest {
+
+    @Test
+    public void cacheIsBoundedToItsEntries() throws Exception {
+        final ProblemsResponseCache cache = new ProblemsResponseCache(8);
+
+        for (int i = 0; i != 100; ++i) {
+            cache.write(MediaType.APPLICATION_JSON, problems(1, "reason" + i), new MockHttpServletResponse(), r -> r.getWriter().write("[]"));
+        }
+
+        Assert.assertTrue(cache.size() <= 8);
+        Assert.assertEquals(100, cache.misses());
+    }
+
+    @Test
+    public void problemListsOverTheLimitAreNotCached() throws Exception {
+        final ProblemsResponseCache cache = new ProblemsResponseCache(8, 2, 1024);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        cache.write(MediaType.APPLICATION_JSON, problems(3, "invalid"), response, r -> r.getWriter().write("[]"));
+
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    public void bodiesOverTheLimitAreWrittenButNotCached() throws Exception {
+        final ProblemsResponseCache cache = new ProblemsResponseCache(8, 2, 4);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        cache.write(MediaType.APPLICATION_JSON, problems(1, "invalid"), response, r -> r.getWriter().write("[{}, {}]"));
+
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals("[{}, {}]", response.getContentAsString());
+    }
+
+    @Test
+    public void writeListenersAreNotifiedThatWritesArePossible() throws Exception {
+        final ProblemsResponseCache cache = new ProblemsResponseCache(8);
+        final AtomicBoolean notified = new AtomicBoolean();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        cache.write(MediaType.APPLICATION_JSON, problems(1, "invalid"), response, r -> r.getOutputStream().setWriteListener(new WriteListener() {
+            @Override
+            public void onWritePossible() {
+                notified.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        }));
+
+        Assert.assertTrue(notified.get());
+    }
+
+    private static List<Problem> problems(int size, String reason) {
+        final List<Problem> problems = new ArrayList<>(size);
+        for (int i = 0; i != size; ++i) {
+            problems.add(Problem.of("FIELD_ERROR", "field" + i, reason, null));
+        }
+        return Collections.unmodifiableList(problems);
+    }
+}
@@ -0,0 +1,97 @@
+package net.optionfactory.problems.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import net.optionfactory.problems.Failure;
+import net.optionfactory.problems.Problem;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+public class ReactiveRestExceptionHandlerTest {
+
+    private DisposableServer server;
+
+    @Before
+    public void before() {
+        final LinkedHashMap<MediaType, ProblemsWriter> writers = new LinkedHashMap<>();
+        writers.put(MediaType.APPLICATION_JSON, JacksonProblemsWriter.json(new ObjectMapper()));
+        writers.put(MediaType.APPLICATION_XML, JacksonProblemsWriter.xml(new XmlMapper()));
+        final ReactiveRestExceptionHandler handler = new ReactiveRestExceptionHandler(writers, 0);
+        final HttpHandler httpHandler = WebHttpHandlerBuilder.webHandler(exchange -> {
+            switch (exchange.getRequest().getPath().value()) {
+                case "/failure":
+                    return Mono.error(new Failure(Problem.of("FIELD_ERROR", "email", "invalid", null)));
+                case "/status":
+                    return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "missing"));
+                default:
+                    return Mono.error(new IllegalStateException("boom"));
+            }
+        }).exceptionHandler(handler).build();
+        server = HttpServer.create().host("127.0.0.1").port(0).handle(new ReactorHttpHandlerAdapter(httpHandler)).bindNow();
+    }
+
+    @After
+    public void after() {
+        server.disposeNow();
+    }
+
+    @Test
+    public void failuresAreWrittenAsProblems() throws IOException {
+        final HttpURLConnection connection = get("/failure", "application/json");
+
+        Assert.assertEquals(400, connection.getResponseCode());
+        Assert.assertEquals("application/json;charset=UTF-8", connection.getContentType());
+        Assert.assertEquals("[{\"type\":\"FIELD_ERROR\",\"context\":\"email\",\"reason\":\"invalid\",\"details\":null}]", body(connection));
+    }
+
+    @Test
+    public void responseStatusExceptionsRetainTheirStatus() throws IOException {
+        final HttpURLConnection connection = get("/status", "application/json");
+
+        Assert.assertEquals(404, connection.getResponseCode());
+        Assert.assertEquals("[{\"type\":\"NOT_FOUND\",\"context\":null,\"reason\":\"missing\",\"details\":null}]", body(connection));
+    }
+
+    @Test
+    public void unexpectedErrorsAreNegotiatedOnAcceptHeader() throws IOException {
+        final HttpURLConnection connection = get("/unexpected", "application/xml");
+
+        Assert.assertEquals(500, connection.getResponseCode());
+        Assert.assertEquals("application/xml;charset=UTF-8", connection.getContentType());
+        Assert.assertTrue(body(connection).contains("<type>UNEXPECTED_PROBLEM</type>"));
+    }
+
+    private HttpURLConnection get(String path, String accept) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.port() + path).openConnection();
+        connection.setRequestProperty("Accept", accept);
+        return connection;
+    }
+
+    private static String body(HttpURLConnection connection) throws IOException {
+        try (InputStream is = connection.getErrorStream()) {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            for (int read = is.read(buffer); read != -1; read = is.read(buffer)) {
+                baos.write(buffer, 0, read);
+            }
+            return baos.toString("UTF-8");
+        }
+    }
+}
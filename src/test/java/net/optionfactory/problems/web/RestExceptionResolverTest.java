@@ -1,22 +1,46 @@
 package net.optionfactory.problems.web;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletionException;
 import java.util.LinkedHashMap;
+import net.optionfactory.problems.AsyncResult;
+import net.optionfactory.problems.Failure;
 import net.optionfactory.problems.Problem;
+import net.optionfactory.problems.ProblemCatalog;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.HttpRequestHandler;
 import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.function.HandlerFunction;
+import org.springframework.web.servlet.function.ServerResponse;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
+import org.springframework.web.servlet.view.xml.MappingJackson2XmlView;
 
 /**
  *
@@ -59,6 +83,294 @@ public class RestExceptionResolverTest {
         Assert.assertTrue(failures instanceof List && ((List) failures).get(0) instanceof Problem);
     }
 
+    @Test
+    public void cachedResponsesAreWrittenDirectly() throws Exception {
+        final ProblemsResponseCache cache = new ProblemsResponseCache(10);
+        er.setResponseCache(cache);
+        final Exception exception = new Failure(Problem.of("FORBIDDEN", "denied"));
+
+        final MockHttpServletResponse first = new MockHttpServletResponse();
+        final ModelAndView got = er.resolveException(new MockHttpServletRequest(), first, hm, exception);
+        final MockHttpServletResponse second = new MockHttpServletResponse();
+        er.resolveException(new MockHttpServletRequest(), second, hm, exception);
+
+        Assert.assertTrue(got.isEmpty());
+        Assert.assertEquals(1, cache.hits());
+        Assert.assertEquals(1, cache.misses());
+        Assert.assertEquals("[{\"type\":\"FORBIDDEN\",\"context\":null,\"reason\":\"denied\",\"details\":null}]", second.getContentAsString());
+        Assert.assertEquals(first.getContentAsString(), second.getContentAsString());
+        Assert.assertEquals(first.getContentType(), second.getContentType());
+    }
+
+    @Test
+    public void problemsCanBeWrittenDirectly() throws Exception {
+        final Exception exception = new Failure(Problem.of("FIELD_ERROR", "email", "invalid", null));
+        final MockHttpServletResponse viaView = new MockHttpServletResponse();
+        final MockHttpServletRequest req = new MockHttpServletRequest();
+        final ModelAndView mav = er.resolveException(req, viaView, hm, exception);
+        mav.getView().render(mav.getModel(), req, viaView);
+
+        er.setWriteDirectly(true);
+        final MockHttpServletResponse direct = new MockHttpServletResponse();
+        final ModelAndView got = er.resolveException(new MockHttpServletRequest(), direct, hm, exception);
+
+        Assert.assertTrue(got.isEmpty());
+        Assert.assertTrue(direct.isCommitted());
+        Assert.assertEquals(viaView.getContentAsString(), direct.getContentAsString());
+        Assert.assertEquals(viaView.getContentType(), direct.getContentType());
+        Assert.assertEquals(viaView.getHeader("Cache-Control"), direct.getHeader("Cache-Control"));
+    }
+
+    @Test
+    public void directlyWrittenXmlMatchesXmlView() throws Exception {
+        final XmlViewFactory factory = new XmlViewFactory(new XmlMapper());
+        final List<Problem> problems = Arrays.asList(Problem.of("FIELD_ERROR", "email", "invalid", null));
+        final MockHttpServletResponse viaView = new MockHttpServletResponse();
+        factory.get().render(Collections.singletonMap("errors", problems), new MockHttpServletRequest(), viaView);
+        final ByteArrayOutputStream direct = new ByteArrayOutputStream();
+        factory.write(problems, direct);
+
+        Assert.assertEquals(viaView.getContentAsString(), direct.toString("UTF-8"));
+    }
+
+    @Test
+    public void viewsAreNegotiatedOnAcceptHeaderAndReused() {
+        final LinkedHashMap<MediaType, Supplier<View>> suppliers = new LinkedHashMap<>();
+        suppliers.put(MediaType.APPLICATION_JSON, new JsonViewFactory(new ObjectMapper()));
+        suppliers.put(MediaType.APPLICATION_XML, new XmlViewFactory(new XmlMapper()));
+        final RestExceptionResolver resolver = new RestExceptionResolver(new ContentNegotiationManager(), suppliers, RestExceptionResolver.LOWEST_PRECEDENCE);
+
+        final MockHttpServletRequest first = new MockHttpServletRequest();
+        first.addHeader("Accept", "application/xml");
+        final View firstView = resolver.resolveException(first, new MockHttpServletResponse(), hm, new IllegalArgumentException()).getView();
+        final MockHttpServletRequest second = new MockHttpServletRequest();
+        second.addHeader("Accept", "application/xml");
+        final View secondView = resolver.resolveException(second, new MockHttpServletResponse(), hm, new IllegalArgumentException()).getView();
+
+        Assert.assertTrue(firstView instanceof MappingJackson2XmlView);
+        Assert.assertSame(firstView, secondView);
+    }
+
+    @Test
+    public void acceptHeadersAreMemoizedAfterABurstOfUnusualOnes() throws Exception {
+        final AtomicInteger negotiations = new AtomicInteger();
+        final ContentNegotiationManager cnm = new ContentNegotiationManager() {
+            @Override
+            public List<MediaType> resolveMediaTypes(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+                negotiations.incrementAndGet();
+                return super.resolveMediaTypes(request);
+            }
+        };
+        final LinkedHashMap<MediaType, Supplier<View>> suppliers = new LinkedHashMap<>();
+        suppliers.put(MediaType.APPLICATION_JSON, new JsonViewFactory(new ObjectMapper()));
+        final RestExceptionResolver resolver = new RestExceptionResolver(cnm, suppliers, RestExceptionResolver.LOWEST_PRECEDENCE);
+        for (int i = 0; i != 300; ++i) {
+            final MockHttpServletRequest unusual = new MockHttpServletRequest();
+            unusual.addHeader("Accept", "application/x-unusual-" + i);
+            resolver.resolveException(unusual, new MockHttpServletResponse(), hm, new IllegalArgumentException());
+        }
+        negotiations.set(0);
+
+        for (int i = 0; i != 2; ++i) {
+            final MockHttpServletRequest common = new MockHttpServletRequest();
+            common.addHeader("Accept", "application/json");
+            resolver.resolveException(common, new MockHttpServletResponse(), hm, new IllegalArgumentException());
+        }
+
+        Assert.assertEquals(1, negotiations.get());
+    }
+
+    @Test
+    public void registeredMappersTakePrecedenceOverBuiltinOnes() {
+        er.registerExceptionMapper(IllegalStateException.class, (ex, requestUri, logger) -> {
+            return new RestExceptionResolver.HttpStatusAndFailures(HttpStatus.CONFLICT, Collections.singletonList(Problem.of("CONFLICT", ex.getMessage())));
+        });
+        final MockHttpServletResponse res = new MockHttpServletResponse();
+
+        final ModelAndView got = er.resolveException(new MockHttpServletRequest(), res, hm, new IllegalStateException("busy"));
+
+        Assert.assertEquals(409, res.getStatus());
+        Assert.assertEquals("CONFLICT", ((List<Problem>) got.getModel().get("errors")).get(0).type);
+    }
+
+    @Test
+    public void responseStatusAnnotationIsHonored() {
+        final MockHttpServletResponse res = new MockHttpServletResponse();
+
+        final ModelAndView got = er.resolveException(new MockHttpServletRequest(), res, hm, new AnnotatedException());
+
+        Assert.assertEquals(418, res.getStatus());
+        Assert.assertEquals("teapot", ((List<Problem>) got.getModel().get("errors")).get(0).reason);
+    }
+
+    @Test
+    public void erroredAsyncResultsAreReportedAsFailures() {
+        final Problem problem = Problem.of("FIELD_ERROR", "email", "invalid", null);
+        final Throwable[] completion = new Throwable[1];
+        AsyncResult.error(problem).toFuture().thenApply(v -> v).whenComplete((v, ex) -> completion[0] = ex);
+        final MockHttpServletResponse res = new MockHttpServletResponse();
+
+        final ModelAndView got = er.resolveException(new MockHttpServletRequest(), res, hm, (Exception) completion[0]);
+
+        Assert.assertTrue(completion[0] instanceof CompletionException);
+        Assert.assertEquals(400, res.getStatus());
+        Assert.assertEquals(Arrays.asList(problem), got.getModel().get("errors"));
+    }
+
+    @Test
+    public void resolutionsAreCountedWhenMetricsAreEnabled() throws Exception {
+        final LongAdderProblemsMetrics metrics = new LongAdderProblemsMetrics();
+        er.setMetrics(metrics);
+        final MockHttpServletRequest req = new MockHttpServletRequest();
+        final MockHttpServletResponse res = new MockHttpServletResponse();
+
+        final ModelAndView got = er.resolveException(req, res, hm, new Failure(Problem.of("FIELD_ERROR", "invalid")));
+        got.getView().render(got.getModel(), req, res);
+
+        Assert.assertEquals(1, metrics.exceptions().get(Failure.class).count());
+        Assert.assertEquals(Long.valueOf(1), metrics.statuses().get(400));
+        Assert.assertEquals(Long.valueOf(1), metrics.problemTypes().get("FIELD_ERROR"));
+        Assert.assertEquals(1, metrics.serializations().get(MediaType.APPLICATION_JSON).count());
+    }
+
+    @Test
+    public void asyncResolutionsAreCountedUnderTheUnwrappedException() {
+        final LongAdderProblemsMetrics metrics = new LongAdderProblemsMetrics();
+        er.setMetrics(metrics);
+
+        er.resolveException(new MockHttpServletRequest(), new MockHttpServletResponse(), hm, new CompletionException(new Failure(Problem.of("FIELD_ERROR", "invalid"))));
+
+        Assert.assertEquals(1, metrics.exceptions().get(Failure.class).count());
+        Assert.assertFalse(metrics.exceptions().containsKey(CompletionException.class));
+    }
+
+    @Test
+    public void functionalEndpointsAreHandled() {
+        final HandlerFunction<ServerResponse> handler = request -> ServerResponse.ok().build();
+
+        final ModelAndView got = er.resolveException(new MockHttpServletRequest(), new MockHttpServletResponse(), handler, new IllegalArgumentException());
+
+        Assert.assertNotNull(got);
+    }
+
+    @Test
+    public void otherHandlersAreNotHandled() {
+        final HttpRequestHandler handler = (request, response) -> {
+        };
+
+        final ModelAndView got = er.resolveException(new MockHttpServletRequest(), new MockHttpServletResponse(), handler, new IllegalArgumentException());
+
+        Assert.assertNull(got);
+    }
+
+    @Test
+    public void unrecognizedPropertyDetailsAreCachedPerReferringClass() throws Exception {
+        final Problem first = er.toStatusAndErrors(new MockHttpServletRequest(), new MockHttpServletResponse(), hm, unreadable("{\"name\":\"a\",\"unknown\":1}", Dto.class)).failures.get(0);
+        final Problem second = er.toStatusAndErrors(new MockHttpServletRequest(), new MockHttpServletResponse(), hm, unreadable("{\"other\":1}", Dto.class)).failures.get(0);
+
+        Assert.assertSame(first.details, second.details);
+        Assert.assertEquals("{\"known\":[\"name\"],\"in\":\"Dto\"}", new ObjectMapper().writeValueAsString(first.details));
+    }
+
+    @Test
+    public void unparseableMessageDetailsReportTheLocation() throws Exception {
+        final Problem got = er.toStatusAndErrors(new MockHttpServletRequest(), new MockHttpServletResponse(), hm, unreadable("{\"name\": x}", Dto.class)).failures.get(0);
+
+        Assert.assertEquals("{\"location\":{\"lineNr\":1,\"columnNr\":11,\"charOffset\":10,\"byteOffset\":-1}}", new ObjectMapper().writeValueAsString(got.details));
+    }
+
+    @Test
+    public void statusPolicyOverridesStatusAndAddsHeaders() {
+        final HttpHeaders retryAfter = new HttpHeaders();
+        retryAfter.set(HttpHeaders.RETRY_AFTER, "30");
+        final ProblemsPostProcessor postProcessor = new ProblemsPostProcessor();
+        postProcessor.setStatusPolicy(ProblemStatusPolicy.empty()
+                .type("RATE_LIMITED", HttpStatus.TOO_MANY_REQUESTS, retryAfter)
+                .when(problems -> problems.size() > 1, HttpStatus.UNPROCESSABLE_ENTITY));
+        er.setPostProcessor(postProcessor);
+        retryAfter.set(HttpHeaders.RETRY_AFTER, "60");
+        final MockHttpServletResponse limited = new MockHttpServletResponse();
+        final MockHttpServletResponse many = new MockHttpServletResponse();
+        final MockHttpServletResponse other = new MockHttpServletResponse();
+
+        er.resolveException(new MockHttpServletRequest(), limited, hm, new Failure(Problem.of("RATE_LIMITED", "slow down")));
+        er.resolveException(new MockHttpServletRequest(), many, hm, new Failure(Arrays.asList(Problem.of("A", "a"), Problem.of("B", "b"))));
+        er.resolveException(new MockHttpServletRequest(), other, hm, new Failure(Problem.of("A", "a")));
+
+        Assert.assertEquals(429, limited.getStatus());
+        Assert.assertEquals("30", limited.getHeader(HttpHeaders.RETRY_AFTER));
+        Assert.assertEquals(422, many.getStatus());
+        Assert.assertEquals(400, other.getStatus());
+    }
+
+    @Test
+    public void catalogReasonsAreRenderedInTheRequestLocale() {
+        final ProblemsPostProcessor postProcessor = new ProblemsPostProcessor();
+        postProcessor.setProblemCatalog(ProblemCatalog.of(Locale.ENGLISH)
+                .reason("QUANTITY_EXCEEDED", "at most {0} items")
+                .reason("QUANTITY_EXCEEDED", Locale.ITALIAN, "al massimo {0} articoli"));
+        er.setPostProcessor(postProcessor);
+        final MockHttpServletRequest req = new MockHttpServletRequest();
+        req.addHeader("Accept-Language", "it-IT");
+        final Failure failure = new Failure(ProblemCatalog.of(Locale.ENGLISH).reason("QUANTITY_EXCEEDED", "at most {0} items").problem("QUANTITY_EXCEEDED", "items", 10));
+
+        final ModelAndView got = er.resolveException(req, new MockHttpServletResponse(), hm, failure);
+
+        Assert.assertEquals("al massimo 10 articoli", ((List<Problem>) got.getModel().get("errors")).get(0).reason);
+    }
+
+    @Test
+    public void partialDirectWritesAreDiscarded() throws Exception {
+        final LinkedHashMap<MediaType, Supplier<View>> suppliers = new LinkedHashMap<>();
+        suppliers.put(MediaType.APPLICATION_JSON, new FailingViewFactory());
+        final RestExceptionResolver resolver = new RestExceptionResolver(new ContentNegotiationManager(), suppliers, RestExceptionResolver.LOWEST_PRECEDENCE + 1);
+        resolver.setWriteDirectly(true);
+        final MockHttpServletResponse res = new MockHttpServletResponse();
+        res.setBufferSize(1024);
+
+        final ModelAndView got = resolver.resolveException(new MockHttpServletRequest(), res, hm, new Failure(Problem.of("A", "a")));
+
+        Assert.assertTrue(got.isEmpty());
+        Assert.assertEquals(0, res.getContentAsByteArray().length);
+        Assert.assertEquals(400, res.getStatus());
+    }
+
+    private static class FailingViewFactory implements Supplier<View>, ProblemsWriter {
+
+        @Override
+        public View get() {
+            throw new AssertionError("the view must not be rendered");
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/json";
+        }
+
+        @Override
+        public void write(List<Problem> problems, OutputStream os) throws IOException {
+            os.write('[');
+            throw new IOException("broken");
+        }
+    }
+
+    private static HttpMessageNotReadableException unreadable(String body, Class<?> type) {
+        try {
+            new ObjectMapper().readValue(body, type);
+            throw new AssertionError("expected a parsing failure");
+        } catch (JsonProcessingException ex) {
+            return new HttpMessageNotReadableException(ex.getMessage(), ex, new MockHttpInputMessage(new byte[0]));
+        }
+    }
+
+    public static class Dto {
+
+        public String name;
+    }
+
+    @ResponseStatus(code = HttpStatus.I_AM_A_TEAPOT, reason = "teapot")
+    public static class AnnotatedException extends RuntimeException {
+    }
 
     @ResponseBody
     public void fakeControllerMethod() {